@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// 静的ファイルの圧縮済みファイル(.gz・.br)の生成(ビルド時にpom.xmlからtarget/classes/staticを対象に実行する)
+// 配信時はStaticResourceConfigのEncodedResourceResolverが、ブラウザが対応していればこれらを返す
+// .brはbrotliコマンドがある場合のみ生成する(なければ.gzのみ)
+//
+// 使い方: java scripts/PrecompressStaticAssets.java <ディレクトリ>
+public class PrecompressStaticAssets {
+
+    // 圧縮する拡張子(画像等の既に圧縮されている形式は対象外)
+    private static final List<String> EXTENSIONS = List.of(".css", ".js", ".svg", ".json", ".txt", ".html", ".map");
+    // これより小さいファイルは圧縮しても効果がないため対象外
+    private static final long MIN_SIZE = 1024;
+    // brotliコマンドの実行の待ち時間
+    private static final long BROTLI_TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("usage: java PrecompressStaticAssets.java <directory>");
+            System.exit(2);
+        }
+        Path root = Path.of(args[0]);
+        if (!Files.isDirectory(root)) {
+            System.out.println("[precompress] " + root + " not found, skipped");
+            return;
+        }
+
+        boolean brotli = brotliAvailable();
+        if (!brotli) {
+            System.out.println("[precompress] brotli command not found, generating .gz only");
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).filter(PrecompressStaticAssets::isTarget).toList();
+        }
+        int generated = 0;
+        for (Path file : files) {
+            if (gzip(file)) {
+                generated++;
+            }
+            if (brotli && brotli(file)) {
+                generated++;
+            }
+        }
+        System.out.println("[precompress] " + files.size() + " files, " + generated + " variants generated");
+    }
+
+    private static boolean isTarget(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try {
+            return EXTENSIONS.stream().anyMatch(name::endsWith) && Files.size(file) >= MIN_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // 元のファイルより新しい圧縮済みファイルがあれば、再生成しない
+    private static boolean upToDate(Path file, Path variant) throws IOException {
+        if (!Files.exists(variant)) {
+            return false;
+        }
+        FileTime source = Files.getLastModifiedTime(file);
+        return Files.getLastModifiedTime(variant).compareTo(source) >= 0;
+    }
+
+    // 圧縮しても小さくならなければ、圧縮済みファイルは残さない(元のファイルをそのまま返させる)
+    private static boolean keepIfSmaller(Path file, Path variant) throws IOException {
+        if (Files.size(variant) >= Files.size(file)) {
+            Files.delete(variant);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean gzip(Path file) throws IOException {
+        Path variant = file.resolveSibling(file.getFileName() + ".gz");
+        if (upToDate(file, variant)) {
+            return false;
+        }
+        try (OutputStream out = new BestCompressionGZIPOutputStream(Files.newOutputStream(variant))) {
+            Files.copy(file, out);
+        }
+        return keepIfSmaller(file, variant);
+    }
+
+    private static boolean brotli(Path file) throws IOException, InterruptedException {
+        Path variant = file.resolveSibling(file.getFileName() + ".br");
+        if (upToDate(file, variant)) {
+            return false;
+        }
+        Process process = new ProcessBuilder("brotli", "--best", "--force", "--output=" + variant, file.toString())
+                .inheritIO().start();
+        if (!process.waitFor(BROTLI_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("brotli timed out: " + file);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("brotli failed (exit " + process.exitValue() + "): " + file);
+        }
+        return keepIfSmaller(file, variant);
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version").redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            return process.waitFor(BROTLI_TIMEOUT_SECONDS, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    // 最大の圧縮率で圧縮する(ビルド時に1回だけ行うため、圧縮にかかる時間より大きさを優先する)
+    private static final class BestCompressionGZIPOutputStream extends GZIPOutputStream {
+        private BestCompressionGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# 起動時間の計測(通常の起動と、AOT・CDSを使った起動(./mvnw -Pfast-start package)の比較)
+# 起動してから/loginが200を返すまでの時間と、Spring Bootが出力する起動時間を回数分計測して平均を出力する
+# DB(application.propertiesの接続先)は起動済みで、マイグレーションが適用済みであること
+#
+# 使い方: scripts/measure-startup.sh [回数(既定5)] [ポート(既定18080)]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR_NAME=DailyReportSystemApplication-0.0.1-SNAPSHOT.jar
+FAST_START_DIR="$ROOT/target/fast-start"
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+if [ ! -f "$FAST_START_DIR/application.jsa" ]; then
+    echo "target/fast-start/application.jsa not found; run ./mvnw -Pfast-start package first" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# 1回分の計測(引数は作業ディレクトリと、javaの引数)。"<HTTPで応答するまでのミリ秒> <Spring Bootの起動時間(秒)>"を出力
+measure() {
+    local dir=$1
+    shift
+    local start pid
+    start=$(now_ms)
+    (cd "$dir" && exec java "$@" --server.port="$PORT") >"$LOG" 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/login" | grep -q 200; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited during startup, see the log below" >&2
+            cat "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local ready=$(($(now_ms) - start))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    local started
+    started=$(grep -o 'Started DailyReportSystemApplication in [0-9.]* seconds' "$LOG" | grep -o '[0-9.]*' | head -1)
+    echo "$ready ${started:-0}"
+}
+
+report() {
+    local name=$1
+    shift
+    local total_ready=0 total_started=0 ready started
+    for i in $(seq "$RUNS"); do
+        read -r ready started < <(measure "$@")
+        echo "$name #$i: ready ${ready}ms (Spring Boot ${started}s)"
+        total_ready=$((total_ready + ready))
+        total_started=$(echo "$total_started + $started" | bc)
+    done
+    echo "$name average: ready $((total_ready / RUNS))ms (Spring Boot $(echo "scale=3; $total_started / $RUNS" | bc)s)"
+}
+
+report "regular" "$ROOT/target" -jar "$JAR_NAME"
+report "fast-start" "$FAST_START_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$JAR_NAME"
@@ -0,0 +1,117 @@
+package com.techacademy.benchmark;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.techacademy.DailyReportSystemApplication;
+
+import ch.vorburger.mariaDB4j.DB;
+import ch.vorburger.mariaDB4j.DBConfigurationBuilder;
+
+// ベンチマーク用の実行環境(組み込みMariaDBを起動し、アプリケーションを起動して指定件数のデータを登録する)
+public class BenchmarkEnvironment {
+
+    // データベース名(setup-database.sqlのスキーマ名に合わせる)
+    private static final String DATABASE = "daily_report_system";
+    // 登録する従業員の社員番号の接頭辞
+    public static final String EMPLOYEE_PREFIX = "B";
+    // 登録する従業員のパスワード
+    public static final String PASSWORD = "benchmark1";
+    // 一括登録の件数
+    private static final int BATCH_SIZE = 1000;
+
+    private DB db;
+    private ConfigurableApplicationContext context;
+
+    // 組み込みMariaDBとアプリケーションを起動し、従業員と日報を登録(propertiesはアプリケーションに追加で渡す設定)
+    public void start(int employees, int reportsPerEmployee, String... properties) throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        // 空いているポートを使用
+        config.setPort(0);
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(DATABASE);
+
+        String url = "jdbc:mariadb://localhost:" + db.getConfiguration().getPort() + "/" + DATABASE;
+        context = new SpringApplicationBuilder(DailyReportSystemApplication.class).profiles("benchmark")
+                .properties("spring.datasource.url=" + url).properties(properties).run();
+
+        seed(employees, reportsPerEmployee);
+    }
+
+    // アプリケーションと組み込みMariaDBを停止
+    public void stop() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    // アプリケーションのHTTPのポート番号
+    public int getPort() {
+        return getWebServer().getPort();
+    }
+
+    // 起動したWebサーバー(追加のコネクタのポート番号の取得用)
+    public WebServer getWebServer() {
+        return ((WebServerApplicationContext) context).getWebServer();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // 社員番号(0始まりの連番から生成)
+    public static String employeeCode(int index) {
+        return EMPLOYEE_PREFIX + index;
+    }
+
+    // 従業員と日報を一括登録(日報の日付は今日から1日ずつ遡る)
+    private void seed(int employees, int reportsPerEmployee) {
+        JdbcTemplate jdbcTemplate = getBean(JdbcTemplate.class);
+        String password = getBean(PasswordEncoder.class).encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> employeeRows = new ArrayList<Object[]>();
+        for (int i = 0; i < employees; i++) {
+            employeeRows.add(new Object[] { employeeCode(i), "ベンチマーク" + i, "GENERAL", password, now, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES (?,?,?,?,0,?,?)", employeeRows);
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> reportRows = new ArrayList<Object[]>();
+        for (int i = 0; i < employees; i++) {
+            for (int j = 0; j < reportsPerEmployee; j++) {
+                reportRows.add(new Object[] { Date.valueOf(today.minusDays(j)), "タイトル" + j,
+                        "ベンチマーク用の日報の内容です。".repeat(20), employeeCode(i), now, now });
+                if (reportRows.size() == BATCH_SIZE) {
+                    insertReports(jdbcTemplate, reportRows);
+                    reportRows.clear();
+                }
+            }
+        }
+        insertReports(jdbcTemplate, reportRows);
+    }
+
+    private void insertReports(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reports(report_date,title,content,employee_code,delete_flg,created_at,"
+                + "updated_at) VALUES (?,?,?,?,0,?,?)", rows);
+    }
+}
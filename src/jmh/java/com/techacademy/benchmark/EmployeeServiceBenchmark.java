@@ -0,0 +1,132 @@
+package com.techacademy.benchmark;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.UserDetail;
+
+// EmployeeServiceの登録・更新・削除(日報の論理削除を含む)のベンチマーク
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    // 登録する従業員数
+    @Param({ "100" })
+    public int employees;
+
+    // 従業員1人あたりの日報数(削除時に論理削除される件数)
+    @Param({ "100", "1000" })
+    public int reportsPerEmployee;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private EmployeeService employeeService;
+    private JdbcTemplate jdbcTemplate;
+    // 削除を実行するログインユーザー
+    private UserDetail admin;
+    // 登録・削除する従業員の連番
+    private int sequence;
+    private int updateCount;
+    // 更新する従業員の現在のバージョン
+    private Integer version;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment.start(employees, reportsPerEmployee);
+        employeeService = environment.getBean(EmployeeService.class);
+        jdbcTemplate = environment.getBean(JdbcTemplate.class);
+        admin = new UserDetail(employeeService.findByCode("1"));
+        version = employeeService.findByCode(BenchmarkEnvironment.employeeCode(0)).getVersion();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+    }
+
+    // 日報を持つ従業員を1人登録し、社員番号を返す
+    private String insertEmployeeWithReports() {
+        String code = "D" + (sequence++);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO employees(code,name,role,password,delete_flg,created_at,updated_at)"
+                + " VALUES (?,?,?,?,0,?,?)", code, "削除対象", "GENERAL", "-", now, now);
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (int i = 0; i < reportsPerEmployee; i++) {
+            rows.add(new Object[] { Date.valueOf(today.minusDays(i)), "タイトル", "内容", code, now, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reports(report_date,title,content,employee_code,delete_flg,created_at,"
+                + "updated_at) VALUES (?,?,?,?,0,?,?)", rows);
+        return code;
+    }
+
+    // 削除対象の従業員(削除の計測ごとに登録し、登録にかかる時間は計測に含めない)
+    @State(Scope.Benchmark)
+    public static class DeleteTarget {
+        private String code;
+
+        @Setup(Level.Invocation)
+        public void prepare(EmployeeServiceBenchmark benchmark) {
+            code = benchmark.insertEmployeeWithReports();
+        }
+    }
+
+    @Benchmark
+    public ErrorKinds save() {
+        Employee employee = new Employee();
+        employee.setCode("S" + (sequence++));
+        employee.setName("ベンチマーク");
+        employee.setRole(Role.GENERAL);
+        employee.setPassword(BenchmarkEnvironment.PASSWORD);
+        return employeeService.save(employee);
+    }
+
+    @Benchmark
+    public ErrorKinds update() {
+        // パスワードは変更せずに氏名を更新
+        Employee employee = new Employee();
+        String code = BenchmarkEnvironment.employeeCode(0);
+        employee.setCode(code);
+        employee.setName("更新" + (updateCount++));
+        employee.setRole(Role.GENERAL);
+        employee.setPassword("");
+        employee.setVersion(version);
+        ErrorKinds result = employeeService.update(code, employee);
+        // 次の更新は更新後のバージョンで行う
+        version = employee.getVersion();
+        return result;
+    }
+
+    @Benchmark
+    public ErrorKinds delete(DeleteTarget target) {
+        return employeeService.delete(target.code, admin);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.techacademy.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.connector.Connector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+
+// 同じサーバーのWebサーバーからの通信(プロキシの1区間)の比較
+// ループバックのTCP(現在のAJPのコネクタ・HTTPのコネクタ)と、Unixドメインソケットのコネクタに同じ要求を送る
+// pooledConnectionはWebサーバーが接続を使い回す場合、connectionPerRequestは要求ごとに接続する場合
+// 画面の生成より通信の差が見えるよう、DBを参照せずログインも不要なログイン画面を既定にしている
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+public class ProxyHopBenchmark {
+
+    // Webサーバーとの通信手段
+    @Param({ "ajp", "http" })
+    public String protocol;
+
+    // tcpはループバックのTCP、unixはUnixドメインソケット
+    @Param({ "tcp", "unix" })
+    public String transport;
+
+    // 要求するパス(既定はログイン画面。-p path=/js/bootstrap.min.js等で静的ファイルも指定できる)
+    @Param({ "/login" })
+    public String path;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private Path socketDirectory;
+    private SocketAddress address;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        socketDirectory = Files.createTempDirectory("proxy-hop");
+        Path httpSocket = socketDirectory.resolve("http.sock");
+        Path ajpSocket = socketDirectory.resolve("ajp.sock");
+        // AJPのTCPのポートは空いているものを使う
+        environment.start(1, 1, "app.connector.ajp.port=0",
+                "server.forward-headers-strategy=native", "app.connector.unix-socket.http-path=" + httpSocket,
+                "app.connector.unix-socket.ajp-path=" + ajpSocket);
+
+        if ("unix".equals(transport)) {
+            address = UnixDomainSocketAddress.of("ajp".equals(protocol) ? ajpSocket : httpSocket);
+        } else {
+            int port = "ajp".equals(protocol) ? ajpTcpPort() : environment.getPort();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+        // ソケットファイルはTomcatの停止時に削除される
+        Files.deleteIfExists(socketDirectory);
+    }
+
+    // TCPで待ち受けているAJPのコネクタのポート番号
+    private int ajpTcpPort() {
+        for (Connector connector : ((TomcatWebServer) environment.getWebServer()).getTomcat().getService()
+                .findConnectors()) {
+            if (connector.getProtocolHandlerClassName().equals("org.apache.coyote.ajp.AjpNio2Protocol")) {
+                return connector.getLocalPort();
+            }
+        }
+        throw new IllegalStateException("AJP connector not found");
+    }
+
+    // スレッドごとの接続(Webサーバーの接続プールの1接続に相当)
+    @State(Scope.Thread)
+    public static class Client {
+        ProxyHopClient connection;
+
+        @Setup(Level.Trial)
+        public void setUp(ProxyHopBenchmark benchmark) throws IOException {
+            connection = ProxyHopClient.open(benchmark.protocol, benchmark.address);
+            // セッションを作成しておく
+            benchmark.check(connection.get(benchmark.path));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int pooledConnection(Client client) throws IOException {
+        return check(client.connection.get(path));
+    }
+
+    @Benchmark
+    public int connectionPerRequest(Client client) throws IOException {
+        try (ProxyHopClient connection = client.connection.reconnect(protocol)) {
+            return check(connection.get(path));
+        }
+    }
+
+    private int check(int status) {
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected status " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,255 @@
+package com.techacademy.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// リバースプロキシ(Webサーバー)の代わりに、1つの接続でHTTP/1.1またはAJPの要求を送るクライアント
+// Webサーバーと同じく接続を使い回す。セッションが要求ごとに作られないよう、最初の応答のJSESSIONIDを送り返す
+abstract class ProxyHopClient implements AutoCloseable {
+
+    private static final String SESSION_COOKIE = "JSESSIONID=";
+
+    private final SocketAddress address;
+    private SocketChannel channel;
+    protected InputStream in;
+    protected OutputStream out;
+    // 最初の応答で受け取ったセッションのCookie(JSESSIONID=...)
+    protected String cookie;
+
+    protected ProxyHopClient(SocketAddress address) throws IOException {
+        this.address = address;
+        connect();
+    }
+
+    // 接続を開き直す(サーバーが接続を閉じた場合は、Webサーバーと同じく新しい接続で続ける)
+    protected void connect() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = SocketChannel.open(address);
+        in = new BufferedInputStream(Channels.newInputStream(channel));
+        out = new BufferedOutputStream(Channels.newOutputStream(channel));
+    }
+
+    static ProxyHopClient open(String protocol, SocketAddress address) throws IOException {
+        return "ajp".equals(protocol) ? new Ajp(address) : new Http(address);
+    }
+
+    // GETの要求を送り、応答を最後まで読んでステータスコードを返す
+    abstract int get(String path) throws IOException;
+
+    // 同じセッションを使う別の接続を開く
+    ProxyHopClient reconnect(String protocol) throws IOException {
+        ProxyHopClient client = open(protocol, address);
+        client.cookie = cookie;
+        return client;
+    }
+
+    protected void captureCookie(String setCookie) {
+        if (cookie == null && setCookie.startsWith(SESSION_COOKIE)) {
+            int end = setCookie.indexOf(';');
+            cookie = end < 0 ? setCookie : setCookie.substring(0, end);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // HTTP/1.1(Content-Lengthとchunkedの応答に対応)
+    // Tomcatは1つの接続で処理する要求数の上限(server.tomcat.max-keep-alive-requests)に達すると接続を閉じる
+    static final class Http extends ProxyHopClient {
+
+        // 前の応答でサーバーが接続を閉じた(Connection: close)
+        private boolean closedByServer;
+
+        Http(SocketAddress address) throws IOException {
+            super(address);
+        }
+
+        @Override
+        int get(String path) throws IOException {
+            if (closedByServer) {
+                connect();
+                closedByServer = false;
+            }
+            StringBuilder request = new StringBuilder("GET ").append(path).append(" HTTP/1.1\r\nHost: localhost\r\n");
+            if (cookie != null) {
+                request.append("Cookie: ").append(cookie).append("\r\n");
+            }
+            out.write(request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long contentLength = -1;
+            boolean chunked = false;
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                int colon = line.indexOf(':');
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = line.substring(colon + 1).trim();
+                if (name.equals("content-length")) {
+                    contentLength = Long.parseLong(value);
+                } else if (name.equals("transfer-encoding")) {
+                    chunked = value.equalsIgnoreCase("chunked");
+                } else if (name.equals("set-cookie")) {
+                    captureCookie(value);
+                } else if (name.equals("connection")) {
+                    closedByServer = value.equalsIgnoreCase("close");
+                }
+            }
+
+            if (chunked) {
+                for (long size = Long.parseLong(readLine().split(";")[0].trim(), 16); size > 0; size = Long
+                        .parseLong(readLine().split(";")[0].trim(), 16)) {
+                    skip(size);
+                    readLine();
+                }
+                // トレーラーの終わりまで読む
+                while (!readLine().isEmpty()) {
+                }
+            } else if (contentLength > 0) {
+                skip(contentLength);
+            }
+            return status;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.ISO_8859_1);
+        }
+
+        private void skip(long length) throws IOException {
+            long remaining = length;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("Connection closed by the server");
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+
+    // AJP13(Webサーバーからコンテナへの要求パケットと、コンテナからの応答パケット)
+    static final class Ajp extends ProxyHopClient {
+
+        private static final int FORWARD_REQUEST = 2;
+        private static final int METHOD_GET = 2;
+        private static final int HEADER_HOST = 0xA00B;
+        private static final int HEADER_COOKIE = 0xA009;
+        private static final int HEADER_SET_COOKIE = 0xA007;
+        private static final int ATTRIBUTES_END = 0xFF;
+
+        private static final int SEND_HEADERS = 4;
+        private static final int END_RESPONSE = 5;
+
+        private final DataInputStream data = new DataInputStream(in);
+
+        Ajp(SocketAddress address) throws IOException {
+            super(address);
+        }
+
+        @Override
+        int get(String path) throws IOException {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            DataOutputStream request = new DataOutputStream(payload);
+            request.writeByte(FORWARD_REQUEST);
+            request.writeByte(METHOD_GET);
+            writeString(request, "HTTP/1.1");
+            writeString(request, path);
+            writeString(request, "127.0.0.1"); // remote_addr
+            writeString(request, "localhost"); // remote_host
+            writeString(request, "localhost"); // server_name
+            request.writeShort(80); // server_port
+            request.writeBoolean(false); // is_ssl
+            request.writeShort(cookie == null ? 1 : 2);
+            request.writeShort(HEADER_HOST);
+            writeString(request, "localhost");
+            if (cookie != null) {
+                request.writeShort(HEADER_COOKIE);
+                writeString(request, cookie);
+            }
+            request.writeByte(ATTRIBUTES_END);
+
+            out.write(0x12);
+            out.write(0x34);
+            out.write(payload.size() >> 8);
+            out.write(payload.size() & 0xFF);
+            payload.writeTo(out);
+            out.flush();
+
+            int status = -1;
+            while (true) {
+                if (data.readUnsignedByte() != 'A' || data.readUnsignedByte() != 'B') {
+                    throw new IOException("Invalid AJP response packet");
+                }
+                int length = data.readUnsignedShort();
+                int type = data.readUnsignedByte();
+                if (type == SEND_HEADERS) {
+                    status = data.readUnsignedShort();
+                    readString(); // status_msg
+                    int headers = data.readUnsignedShort();
+                    for (int i = 0; i < headers; i++) {
+                        int name = data.readUnsignedShort();
+                        if ((name & 0xFF00) != 0xA000) {
+                            // コード化されていないヘッダー名(長さは読み込み済み)
+                            data.skipNBytes(name + 1L);
+                        }
+                        String value = readString();
+                        if (name == HEADER_SET_COOKIE) {
+                            captureCookie(value);
+                        }
+                    }
+                } else if (type == END_RESPONSE) {
+                    data.skipNBytes(length - 1L);
+                    return status;
+                } else {
+                    // SEND_BODY_CHUNK等の内容は読み飛ばす
+                    data.skipNBytes(length - 1L);
+                }
+            }
+        }
+
+        private static void writeString(DataOutputStream request, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            request.writeShort(bytes.length);
+            request.write(bytes);
+            request.writeByte(0);
+        }
+
+        private String readString() throws IOException {
+            int length = data.readUnsignedShort();
+            if (length == 0xFFFF) {
+                return null;
+            }
+            byte[] bytes = data.readNBytes(length);
+            data.readUnsignedByte();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
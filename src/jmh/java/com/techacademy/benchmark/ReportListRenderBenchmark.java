@@ -0,0 +1,106 @@
+package com.techacademy.benchmark;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import com.techacademy.service.ReportPage;
+import com.techacademy.service.ReportService;
+import com.techacademy.service.UserDetail;
+import com.techacademy.service.UserDetailService;
+
+import jakarta.servlet.ServletContext;
+
+// 日報一覧画面のテンプレートの生成時間(画面の共通部分のキャッシュの有無の比較)
+// DBの検索やリクエストの処理を含めず、取得済みの1ページ分の日報から画面を生成する時間のみを計測する
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportListRenderBenchmark {
+
+    // 共通部分のキャッシュを使うかどうか
+    @Param({ "false", "true" })
+    public boolean fragmentCache;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private View view;
+    private ServletContext servletContext;
+    private Authentication authentication;
+    private final Map<String, Object> model = new HashMap<String, Object>();
+    private final CsrfToken csrfToken = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "benchmark");
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment.start(1, ReportPage.DEFAULT_SIZE, "app.fragment-cache.enabled=" + fragmentCache);
+        view = environment.getBean(ThymeleafViewResolver.class).resolveViewName("reports/list", Locale.JAPAN);
+        servletContext = environment.getBean(WebApplicationContext.class).getServletContext();
+
+        UserDetail userDetail = (UserDetail) environment.getBean(UserDetailService.class)
+                .loadUserByUsername(BenchmarkEnvironment.employeeCode(0));
+        authentication = UsernamePasswordAuthenticationToken.authenticated(userDetail, null,
+                userDetail.getAuthorities());
+
+        // 一覧画面と同じモデル(1ページ分の日報と前後のページへのカーソル)
+        ReportPage page = environment.getBean(ReportService.class).findPage(userDetail.getCode(), null, null,
+                ReportPage.DEFAULT_SIZE);
+        model.put("reportList", page.content());
+        model.put("nextCursor", page.next());
+        model.put("previousCursor", page.previous());
+        model.put("size", ReportPage.DEFAULT_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+    }
+
+    @Benchmark
+    public int renderList() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/reports");
+        request.addPreferredLocale(Locale.JAPAN);
+        request.setAttribute(CsrfToken.class.getName(), csrfToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        LocaleContextHolder.setLocale(Locale.JAPAN);
+        try {
+            view.render(model, request, response);
+            return response.getContentAsString().length();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.techacademy.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportService;
+
+// ReportServiceの登録・更新・一覧取得のベンチマーク
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    // 登録する従業員数
+    @Param({ "10", "100" })
+    public int employees;
+
+    // 従業員1人あたりの日報数
+    @Param({ "100", "1000" })
+    public int reportsPerEmployee;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private ReportService reportService;
+    private Employee employee;
+    private Report target;
+    // 登録する日報の日付(重複しないよう、登録済みの日付より後の日付を1日ずつ進める)
+    private LocalDate nextDate;
+    private int updateCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment.start(employees, reportsPerEmployee);
+        reportService = environment.getBean(ReportService.class);
+        employee = environment.getBean(EmployeeService.class).findByCode(BenchmarkEnvironment.employeeCode(0));
+        target = reportService.findByEmployee(employee).get(0);
+        nextDate = LocalDate.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+    }
+
+    @Benchmark
+    public ErrorKinds save() {
+        Report report = new Report();
+        report.setEmployee(employee);
+        report.setReportDate(nextDate);
+        report.setTitle("ベンチマーク");
+        report.setContent("ベンチマーク用の日報の内容です。");
+        nextDate = nextDate.plusDays(1);
+        return reportService.save(report);
+    }
+
+    @Benchmark
+    public ErrorKinds update() {
+        // 日付は変えずにタイトルと内容を更新
+        Report report = new Report();
+        report.setId(target.getId());
+        report.setEmployee(employee);
+        report.setReportDate(target.getReportDate());
+        report.setTitle("更新" + (updateCount++));
+        report.setContent(target.getContent());
+        report.setVersion(target.getVersion());
+        ErrorKinds result = reportService.update(target.getId(), report, target.getReportDate());
+        // 次の更新は更新後のバージョンで行う
+        target.setVersion(report.getVersion());
+        return result;
+    }
+
+    @Benchmark
+    public List<Report> findAll() {
+        return reportService.findAll();
+    }
+
+    @Benchmark
+    public List<Report> findByEmployee() {
+        return reportService.findByEmployee(employee);
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.techacademy.benchmark;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 従来のスレッドプールと仮想スレッドでのリクエスト処理のスループットの比較
+// Tomcatのスレッド数(200)を超える同時リクエストで、DBを参照する日報一覧画面にアクセスする
+// 仮想スレッドの計測にはJava 21以上で実行する(Java 17では両方とも従来のスレッドプールになる)
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(400)
+@Fork(1)
+public class RequestThroughputBenchmark {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    // 仮想スレッドを使うかどうか
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private HttpClient client;
+    private URI reports;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 同時処理数の上限で503にならないよう、上限を超えた分は待たせる
+        environment.start(100, 100, "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=200", "app.request-limit.queue-timeout=1m");
+        String base = "http://localhost:" + environment.getPort();
+        reports = URI.create(base + "/reports");
+
+        // 1人の従業員でログインし、全スレッドで同じセッションを使う
+        client = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        String loginPage = client.send(HttpRequest.newBuilder(URI.create(base + "/login")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = CSRF.matcher(loginPage);
+        if (!matcher.find()) {
+            throw new IllegalStateException("CSRF token not found on the login page");
+        }
+        String form = "username=" + BenchmarkEnvironment.employeeCode(0) + "&password=" + BenchmarkEnvironment.PASSWORD
+                + "&_csrf=" + URLEncoder.encode(matcher.group(1), StandardCharsets.UTF_8);
+        client.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+    }
+
+    @Benchmark
+    public int listReports() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(reports).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.techacademy.service.UserDetailCache;
+import com.techacademy.service.UserDetailService;
+
+// UserDetailServiceの認証時のユーザ情報取得のベンチマーク
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UserDetailServiceBenchmark {
+
+    // 登録する従業員数
+    @Param({ "100", "10000" })
+    public int employees;
+
+    // キャッシュを使用するかどうか(falseの場合は毎回キャッシュを空にしてDBから取得する)
+    @Param({ "true", "false" })
+    public boolean cached;
+
+    private final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    private UserDetailService userDetailService;
+    private UserDetailCache userDetailCache;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 従業員を順番に切り替えるため、キャッシュの上限が従業員数より小さいと常に最も古いものが削除されてヒットしない
+        // キャッシュの効果を計測するよう、上限を全従業員が収まる件数にする
+        environment.start(employees, 0, "app.user-detail-cache.max-size=" + employees);
+        userDetailService = environment.getBean(UserDetailService.class);
+        userDetailCache = environment.getBean(UserDetailCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (!cached) {
+            userDetailCache.clear();
+        }
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        // 従業員を順番に切り替えて取得
+        String code = BenchmarkEnvironment.employeeCode(sequence++ % employees);
+        return userDetailService.loadUserByUsername(code);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.techacademy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.techacademy.datasource.ReplicaHealthChecker;
+import com.techacademy.datasource.ReplicaMetrics;
+import com.techacademy.datasource.ReplicaNode;
+import com.techacademy.datasource.ReplicaProperties;
+import com.techacademy.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+// 参照用のレプリカが設定されている場合(app.datasource.replicas[0].url)のみ、読み取り専用のトランザクションをレプリカに振り分ける
+// 設定がなければ通常どおりspring.datasourceの接続先のみを使う
+@Configuration
+@ConditionalOnProperty("app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+    /** 更新用(プライマリ)の接続プール。設定はspring.datasourceをそのまま使う(Flywayのマイグレーションもこの接続プールで行う) */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /** プライマリとレプリカへの振り分け(レプリカの接続プールは終了時に閉じる) */
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties) {
+        List<ReplicaNode> replicas = new ArrayList<ReplicaNode>();
+        for (ReplicaProperties.Replica replica : replicaProperties.getReplicas()) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName()).url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername()
+                            : dataSourceProperties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword()
+                            : dataSourceProperties.determinePassword())
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setReadOnly(true);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replicas.add(new ReplicaNode(name, dataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaProperties.getReadAfterWriteWindow());
+    }
+
+    /**
+     * アプリケーションが使うDataSource。トランザクションの開始時ではなく最初のSQLの実行時に接続先を決めるため、
+     * 読み取り専用かどうかが確定してから振り分けられる
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /** レプリカの状態を定期的に確認し、遅延が大きい・接続できないレプリカを振り分けの対象から外す */
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaRoutingDataSource replicaRoutingDataSource,
+            ReplicaProperties replicaProperties, TaskScheduler taskScheduler) {
+        ReplicaHealthChecker checker = new ReplicaHealthChecker(replicaRoutingDataSource.getReplicas(),
+                replicaProperties.getMaxLag(), replicaProperties.isRequireReplication());
+        taskScheduler.scheduleWithFixedDelay(checker, replicaProperties.getHealthCheckInterval());
+        return checker;
+    }
+
+    @Bean
+    public ReplicaMetrics replicaMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaMetrics(replicaRoutingDataSource);
+    }
+
+    /**
+     * 接続をトランザクションの終了時に返却する(既定ではリクエストの終了まで同じ接続を保持するため、
+     * 最初のトランザクションの接続先が以降のトランザクションにも使われてしまう)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionHandlingCustomizer() {
+        return properties -> properties.put(JdbcSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,44 @@
+package com.techacademy;
+
+import java.util.List;
+
+import org.hibernate.cfg.SessionEventSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.techacademy.metrics.MetricsInterceptor;
+import com.techacademy.metrics.MetricsRegistry;
+import com.techacademy.metrics.RequestStatisticsIntegrator;
+import com.techacademy.metrics.RequestStatisticsSessionListener;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsConfig(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /** コントローラのハンドラごとの計測(管理用エンドポイント自体は対象外) */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new MetricsInterceptor(metricsRegistry)).excludePathPatterns("/management/**");
+    }
+
+    /** リクエストごとのSQL実行数・エンティティ読込数・フラッシュ数を集計するHibernateのリスナー登録 */
+    @Bean
+    public static HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        return properties -> {
+            properties.put(SessionEventSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    RequestStatisticsSessionListener.class.getName());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new RequestStatisticsIntegrator()));
+        };
+    }
+}
@@ -1,35 +1,102 @@
 package com.techacademy;
 
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+
+import com.techacademy.security.BCryptStrengthCalibrator;
+import com.techacademy.security.BoundedPasswordEncoder;
 
 @Configuration
 public class SecurityConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /** BCryptの強度の範囲(これまでの既定値10より弱くはしない) */
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    /**
+     * 管理用エンドポイントの認証・認可設定
+     * 同じサーバーのリバースプロキシ経由の要求は送信元がループバックアドレスになるため、送信元のアドレスでは制限せず管理者のみアクセス可とする
+     * Prometheus等の収集ツールがログイン画面を経由せずに取得できるよう、Basic認証を使いセッションは作成しない
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementSecurityFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher("/management/**")
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyAuthority("ADMIN"))
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable()); // GETのみでCookieによる認証を使わない
+
+        return http.build();
+    }
+
     /** 認証・認可設定 */
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.formLogin(login -> login.loginProcessingUrl("/login") // 従業員番号・パスワードの送信先
                 .loginPage("/login") // ログイン画面
                 .defaultSuccessUrl("/") // ログイン成功後のリダイレクト先
-                .failureUrl("/login?error") // ログイン失敗時のリダイレクト先
+                .failureHandler(loginFailureHandler()) // ログイン失敗時のリダイレクト先
                 .permitAll() // ログイン画面は未ログインでアクセス可
         ).logout(logout -> logout.logoutSuccessUrl("/login") // ログアウト後のリダイレクト先
         ).authorizeHttpRequests(
                 auth -> auth.requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll() // css等は未ログインでアクセス可
                         .requestMatchers("/employees/**").hasAnyAuthority("ADMIN") // 認可機能の設定箇所：従業員管理は管理者のみアクセス可
+                        .requestMatchers("/statistics/**").hasAnyAuthority("ADMIN") // 日報の集計は管理者のみアクセス可
                         .anyRequest().authenticated()); // その他はログイン必要
 
         return http.build();
     }
 
-    /** ハッシュ化したパスワードの比較に使用する */
+    /**
+     * ログイン失敗時のリダイレクト先
+     * パスワードの照合が混み合って実行できなかった場合は、認証情報の誤りと区別して再度のログインを促す
+     */
+    private static AuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error");
+        handler.setExceptionMappings(Map.of(AuthenticationServiceException.class.getName(), "/login?busy"));
+        return handler;
+    }
+
+    /**
+     * ハッシュ化したパスワードの比較に使用する
+     * BCryptの強度は未指定(0)ならこのサーバーでのハッシュ化時間が目標時間に収まる範囲で決め、保存済みのハッシュはログイン時に再ハッシュされる
+     * ハッシュ化・照合は専用のスレッドプールで実行し、ログイン集中時にも日報画面の処理にCPUを残す
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:0}") int strength,
+            @Value("${app.password.target-hash-time:250ms}") Duration targetHashTime,
+            @Value("${app.password.hashing-threads:0}") int threads,
+            @Value("${app.password.hashing-queue-capacity:100}") int queueCapacity,
+            @Value("${app.password.hashing-timeout:10s}") Duration timeout) {
+        if (strength <= 0) {
+            strength = BCryptStrengthCalibrator.calibrate(targetHashTime, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        }
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        LOGGER.info("BCrypt strength {}, {} hashing threads, queue capacity {}", strength, threads, queueCapacity);
+
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity,
+                timeout.toMillis());
     }
 }
\ No newline at end of file
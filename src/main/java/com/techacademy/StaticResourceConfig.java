@@ -0,0 +1,50 @@
+package com.techacademy;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+// css・jsの配信設定
+// URLにファイルの内容のハッシュを付けて(bootstrap.min-<ハッシュ>.css)、内容が変わらない限りブラウザに再取得させない
+// ビルド時に生成した圧縮済みファイル(.br・.gz)があり、ブラウザが対応していればそちらを返す(scripts/PrecompressStaticAssets.java)
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    // ハッシュ付きのURLで配信するパス
+    private static final String[] PATHS = { "/css/**", "/js/**" };
+    private static final String[] LOCATIONS = { "classpath:/static/css/", "classpath:/static/js/" };
+
+    private final Duration maxAge;
+
+    public StaticResourceConfig(@Value("${app.static-resources.max-age:365d}") Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (int i = 0; i < PATHS.length; i++) {
+            registry.addResourceHandler(PATHS[i]).addResourceLocations(LOCATIONS[i])
+                    // 内容が変わればURLが変わるため、期限まで再検証も不要(immutable)
+                    .setCacheControl(CacheControl.maxAge(maxAge).cachePublic().immutable())
+                    // 解決結果(ハッシュの計算・圧縮済みファイルの有無)はキャッシュし、ファイルごとに1回だけ行う
+                    .resourceChain(true)
+                    // 圧縮済みファイルの選択は、ハッシュの除去より前に行う
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /** テンプレートの@{/css/...}・@{/js/...}をハッシュ付きのURLに変換するフィルター */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
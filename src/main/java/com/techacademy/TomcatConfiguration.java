@@ -1,32 +1,225 @@
 package com.techacademy; // ご自身の環境に合わせてください
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
 import org.apache.catalina.connector.Connector;
-import org.apache.coyote.ajp.AjpNio2Protocol;
+import org.apache.coyote.ajp.AbstractAjpProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Configuration;
 
+import com.techacademy.connector.ConnectorProperties;
+
+// HTTPのコネクタはSpring Bootが作成する(設定はserver.tomcat.*等)
+// ここではAJPのコネクタと、設定されていればUnixドメインソケットのコネクタ(HTTP・AJP)を追加する
+// コネクタの使用状況はConnectorMetricsで出力する
 @Configuration
+@EnableConfigurationProperties(ConnectorProperties.class)
 public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TomcatConfiguration.class);
+
+    // 仮想スレッドが使えるJavaのバージョン
+    private static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+    // 仮想スレッドでリクエストを処理するかどうか(Spring Bootの設定と共通)
+    private final boolean virtualThreads;
+    private final ConnectorProperties properties;
+    // TCPのHTTPのコネクタの設定(UnixドメインソケットのHTTPのコネクタにも同じ設定を使う)
+    private final ServerProperties serverProperties;
+
+    public TomcatConfiguration(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            ConnectorProperties properties, ServerProperties serverProperties) {
+        this.virtualThreads = virtualThreads;
+        this.properties = properties;
+        this.serverProperties = serverProperties;
+    }
+
     @Override
     public void customize(TomcatServletWebServerFactory factory) {
         // Tomcatとの通信手段にAJPを追加
-        factory.addAdditionalTomcatConnectors(ajpConnector());
+        if (properties.getAjp().isEnabled()) {
+            Connector connector = ajpConnector("org.apache.coyote.ajp.AjpNio2Protocol", properties.getAjp());
+            // AJPの通信で使うポート(既定は8009番)
+            connector.setPort(properties.getAjp().getPort());
+            if (properties.getAjp().getAddress() != null) {
+                ((AbstractAjpProtocol<?>) connector.getProtocolHandler())
+                        .setAddress(address(properties.getAjp().getAddress()));
+            }
+            factory.addAdditionalTomcatConnectors(connector);
+        }
+
+        // Unixドメインソケットは、TomcatではNIOのコネクタのみが対応している(NIO2は非対応)
+        ConnectorProperties.UnixSocket unixSocket = properties.getUnixSocket();
+        if (unixSocket.getHttpPath() != null) {
+            requireForwardHeaders();
+            Connector connector = httpConnector("org.apache.coyote.http11.Http11NioProtocol");
+            listenOnUnixSocket(connector, unixSocket.getHttpPath(), unixSocket.getPermissions());
+            factory.addAdditionalTomcatConnectors(connector);
+        }
+        if (unixSocket.getAjpPath() != null) {
+            Connector connector = ajpConnector("org.apache.coyote.ajp.AjpNioProtocol", properties.getAjp());
+            listenOnUnixSocket(connector, unixSocket.getAjpPath(), unixSocket.getPermissions());
+            factory.addAdditionalTomcatConnectors(connector);
+        }
     }
 
-    private Connector ajpConnector() {
+    private Connector ajpConnector(String protocolClassName, ConnectorProperties.Ajp ajp) {
         // AJPの利用を宣言
-        Connector connector = new Connector("org.apache.coyote.ajp.AjpNio2Protocol");
+        Connector connector = new Connector(protocolClassName);
+
+        AbstractAjpProtocol<?> protocol = (AbstractAjpProtocol<?>) connector.getProtocolHandler();
+        // secretという保護機能を利用するかどうか(既定は利用しない)
+        protocol.setSecretRequired(ajp.isSecretRequired());
+        if (ajp.getSecret() != null) {
+            protocol.setSecret(ajp.getSecret());
+        }
 
-        // AJPの通信で8009番ポートを使うための指定
-        connector.setPort(8009);
+        // 処理スレッド・接続数の上限と、接続の保持時間
+        protocol.setMaxThreads(ajp.getMaxThreads());
+        protocol.setMinSpareThreads(ajp.getMinSpareThreads());
+        protocol.setMaxConnections(ajp.getMaxConnections());
+        protocol.setAcceptCount(ajp.getAcceptCount());
+        if (ajp.getConnectionTimeout() != null) {
+            protocol.setConnectionTimeout(millis(ajp.getConnectionTimeout()));
+        }
+        if (ajp.getKeepAliveTimeout() != null) {
+            protocol.setKeepAliveTimeout(millis(ajp.getKeepAliveTimeout()));
+        }
 
-        // secretという保護機能を利用しないようにする設定
-        AjpNio2Protocol protocol = (AjpNio2Protocol) connector.getProtocolHandler();
-        protocol.setSecretRequired(false);
+        // HTTPのコネクタはSpring Bootが仮想スレッドに切り替えるため、AJPのコネクタも合わせる
+        if (useVirtualThreads()) {
+            connector.setProperty("useVirtualThreads", "true");
+        }
 
         return connector;
     }
 
-}
\ No newline at end of file
+    // TCPのHTTPのコネクタ(Spring Bootが作成する)と同じ設定のHTTPのコネクタ
+    // Spring Bootは追加のコネクタにはserver.*の設定を反映しないため、ここで反映する
+    private Connector httpConnector(String protocolClassName) {
+        Connector connector = new Connector(protocolClassName);
+        AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+
+        ServerProperties.Tomcat tomcat = serverProperties.getTomcat();
+        protocol.setMaxThreads(tomcat.getThreads().getMax());
+        protocol.setMinSpareThreads(tomcat.getThreads().getMinSpare());
+        protocol.setMaxConnections(tomcat.getMaxConnections());
+        protocol.setAcceptCount(tomcat.getAcceptCount());
+        protocol.setMaxKeepAliveRequests(tomcat.getMaxKeepAliveRequests());
+        if (tomcat.getConnectionTimeout() != null) {
+            protocol.setConnectionTimeout(millis(tomcat.getConnectionTimeout()));
+        }
+        if (tomcat.getKeepAliveTimeout() != null) {
+            protocol.setKeepAliveTimeout(millis(tomcat.getKeepAliveTimeout()));
+        }
+
+        // レスポンスの圧縮
+        Compression compression = serverProperties.getCompression();
+        if (compression != null && compression.getEnabled()) {
+            protocol.setCompression("on");
+            protocol.setCompressionMinSize((int) compression.getMinResponseSize().toBytes());
+            protocol.setCompressibleMimeType(String.join(",", compression.getMimeTypes()));
+            if (compression.getExcludedUserAgents() != null) {
+                protocol.setNoCompressionUserAgents(String.join(",", compression.getExcludedUserAgents()));
+            }
+        }
+        // HTTP/2(h2c)
+        if (serverProperties.getHttp2() != null && serverProperties.getHttp2().isEnabled()) {
+            connector.addUpgradeProtocol(new Http2Protocol());
+        }
+
+        if (useVirtualThreads()) {
+            connector.setProperty("useVirtualThreads", "true");
+        }
+        return connector;
+    }
+
+    // UnixドメインソケットのHTTPのコネクタでは、Tomcatは接続元を常に127.0.0.1とする
+    // 接続元のアドレスを使う処理(ログ等)が全てのリクエストをローカルからとみなさないよう、
+    // Webサーバーが付けるX-Forwarded-For等の使用(server.forward-headers-strategy)を必須とし、未指定なら起動を中止する
+    // (AJPは接続元のアドレスをプロトコルで受け取るため不要)
+    private void requireForwardHeaders() {
+        ServerProperties.ForwardHeadersStrategy strategy = serverProperties.getForwardHeadersStrategy();
+        if (strategy == null || strategy == ServerProperties.ForwardHeadersStrategy.NONE) {
+            throw new IllegalStateException("app.connector.unix-socket.http-path requires"
+                    + " server.forward-headers-strategy=native (or framework): requests over the socket"
+                    + " would otherwise all appear to come from 127.0.0.1");
+        }
+    }
+
+    // ポートの代わりにUnixドメインソケットで待ち受ける
+    private static void listenOnUnixSocket(Connector connector, String path, String permissions) {
+        removeStaleSocket(Path.of(path));
+        if (!connector.setProperty("unixDomainSocketPath", path)
+                || !connector.setProperty("unixDomainSocketPathPermissions", permissions)) {
+            throw new IllegalStateException(
+                    connector.getProtocolHandler().getClass().getName() + " does not support Unix domain sockets");
+        }
+    }
+
+    // 前回の起動時のソケットファイルが残っていると待ち受けられないため削除する
+    // (異常終了した場合はTomcatが削除できずに残る。接続できる場合は他のプロセスが使用中のため起動を中止する)
+    private static void removeStaleSocket(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        if (Files.isRegularFile(path) || Files.isDirectory(path)) {
+            throw new IllegalStateException("Unix domain socket path is not a socket: " + path);
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(path));
+            throw new IllegalStateException("Unix domain socket is in use by another process: " + path);
+        } catch (IOException e) {
+            try {
+                Files.delete(path);
+                LOGGER.info("Removed stale Unix domain socket {}", path);
+            } catch (IOException deleteFailure) {
+                throw new UncheckedIOException("Cannot remove stale Unix domain socket " + path, deleteFailure);
+            }
+        }
+    }
+
+    // 仮想スレッドを使うかどうか(Java 21未満では設定されていても従来のスレッドプールを使う)
+    private boolean useVirtualThreads() {
+        if (!virtualThreads) {
+            return false;
+        }
+        if (Runtime.version().feature() < VIRTUAL_THREADS_MIN_JAVA) {
+            LOGGER.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads;"
+                    + " requests run on the platform thread pool", Runtime.version().feature());
+            return false;
+        }
+        return true;
+    }
+
+    private static InetAddress address(String address) {
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid connector address: " + address, e);
+        }
+    }
+
+    private static int millis(Duration duration) {
+        return (int) Math.min(duration.toMillis(), Integer.MAX_VALUE);
+    }
+
+}
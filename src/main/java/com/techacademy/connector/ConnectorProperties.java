@@ -0,0 +1,55 @@
+package com.techacademy.connector;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+// Spring Bootが作成するHTTP以外のコネクタの設定(app.connector.ajp.port等)
+// HTTPのコネクタはSpring Bootの設定(server.tomcat.*、server.compression.*、server.http2.enabled)で指定する
+@Data
+@ConfigurationProperties("app.connector")
+public class ConnectorProperties {
+
+    // Webサーバー(リバースプロキシ)からのAJPのコネクタ
+    private Ajp ajp = new Ajp();
+
+    // 同じサーバーのWebサーバーからTCPを使わずに接続するための、Unixドメインソケットのコネクタ
+    private UnixSocket unixSocket = new UnixSocket();
+
+    @Data
+    public static class Ajp {
+        // falseならAJPのコネクタを追加しない
+        private boolean enabled = true;
+        private int port = 8009;
+        // 待ち受けるアドレス(未指定ならTomcatの既定のループバックアドレスのみ)
+        private String address;
+        // secretによる保護(trueの場合はsecretと同じ値をWebサーバー側にも設定する)
+        private boolean secretRequired = false;
+        private String secret;
+
+        // 処理スレッドの上限と、常に待機させておく数(仮想スレッドを使う場合は使用しない)
+        private int maxThreads = 200;
+        private int minSpareThreads = 10;
+        // 受け付ける接続数の上限と、上限に達した場合にOSが保留する接続数
+        private int maxConnections = 8192;
+        private int acceptCount = 100;
+        // 接続後、最初の要求を待つ時間と、次の要求を待つ時間(未指定ならTomcatの既定で、時間切れにしない)
+        // Webサーバーは接続を使い回すため、Webサーバー側の接続の保持時間より長くする
+        private Duration connectionTimeout;
+        private Duration keepAliveTimeout;
+    }
+
+    @Data
+    public static class UnixSocket {
+        // HTTPで待ち受けるソケットファイルのパス(未指定ならHTTPのコネクタは追加しない)
+        // 処理スレッド・圧縮・HTTP/2等の設定はTCPのHTTPのコネクタ(server.*)と同じ
+        private String httpPath;
+        // AJPで待ち受けるソケットファイルのパス(未指定ならAJPのコネクタは追加しない)
+        // 処理スレッド・secret等の設定はTCPのAJPのコネクタ(app.connector.ajp.*)と同じ
+        private String ajpPath;
+        // ソケットファイルの権限(Webサーバーの実行ユーザーが読み書きできるようにする)
+        private String permissions = "rw-rw----";
+    }
+}
@@ -18,6 +18,8 @@ public enum ErrorKinds {
     LOGINCHECK_ERROR,
     // 日付チェックエラー
     DATECHECK_ERROR,
+    // 同時更新チェックエラー(画面を開いた後に他のユーザーが更新・削除した)
+    OPTIMISTIC_LOCK_ERROR,
     // チェックOK
     CHECK_OK,
     // 正常終了
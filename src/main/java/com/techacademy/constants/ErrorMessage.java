@@ -32,6 +32,9 @@ public class ErrorMessage {
                     new ArrayList<String>(Arrays.asList("deleteError", "ログイン中の従業員を削除することは出来ません")));
             // 同一日付チェック用エラーメッセージ
             put(ErrorKinds.DATECHECK_ERROR, new ArrayList<String>(Arrays.asList("reportDateError", "既に登録されている日付です")));
+            // 同時更新チェック用エラーメッセージ
+            put(ErrorKinds.OPTIMISTIC_LOCK_ERROR, new ArrayList<String>(
+                    Arrays.asList("versionError", "他のユーザーによって更新または削除されています。画面を開き直してから更新してください")));
         }
     };
 
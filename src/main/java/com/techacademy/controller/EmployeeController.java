@@ -1,5 +1,7 @@
 package com.techacademy.controller;
 
+import java.time.LocalDateTime;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -12,23 +14,28 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
 
 import com.techacademy.entity.Employee;
+import com.techacademy.service.ChangeHistoryService;
 import com.techacademy.service.EmployeeService;
 import com.techacademy.service.UserDetail;
+import com.techacademy.web.ConditionalPages;
 
 @Controller
 @RequestMapping("employees")
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final ChangeHistoryService changeHistoryService;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ChangeHistoryService changeHistoryService) {
         this.employeeService = employeeService;
+        this.changeHistoryService = changeHistoryService;
     }
 
     // 従業員一覧画面を表示
@@ -45,7 +52,30 @@ public class EmployeeController {
 
     // 従業員詳細画面を表示
     @GetMapping(value = "/{code}/")
-    public String detail(@PathVariable("code") String code, Model model) {
+    public String detail(@PathVariable("code") String code, ServletWebRequest request, Model model) {
+
+        // 前回表示から変更がなければ、従業員を取得せずに304を返す(更新日時のみを取得して判定)
+        LocalDateTime updatedAt = employeeService.findUpdatedAt(code);
+        if (updatedAt != null
+                && ConditionalPages.checkNotModified(request, "employee:" + code, updatedAt)) {
+            return null;
+        }
+
+        return detail(code, model);
+    }
+
+    // 従業員の変更履歴画面を表示
+    @GetMapping(value = "/{code}/history")
+    public String history(@PathVariable("code") String code, Model model) {
+
+        model.addAttribute("title", "従業員 変更履歴");
+        model.addAttribute("historyList", changeHistoryService.findByEmployee(code));
+        model.addAttribute("backUrl", "/employees/" + code + "/");
+        return "history/list";
+    }
+
+    // 従業員詳細画面を生成(削除エラー時の再表示にも使用)
+    private String detail(String code, Model model) {
 
         model.addAttribute("employee", employeeService.findByCode(code));
         return "employees/detail";
@@ -0,0 +1,27 @@
+package com.techacademy.controller;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.techacademy.metrics.MetricsRegistry;
+
+@Controller
+@RequestMapping("management")
+public class ManagementController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public ManagementController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    // メトリクスをPrometheusのテキスト形式で出力(管理者のみアクセス可。SecurityConfigでBasic認証を設定)
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    @ResponseBody
+    public String metrics() {
+        return metricsRegistry.scrape();
+    }
+
+}
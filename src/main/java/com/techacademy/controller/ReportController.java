@@ -1,8 +1,10 @@
 package com.techacademy.controller;
 
-import java.util.List;
+import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -12,74 +14,138 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Employee.Role;
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
 import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportTimestamps;
+import com.techacademy.service.ChangeHistoryService;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportCursor;
+import com.techacademy.service.ReportPage;
+import com.techacademy.service.ReportSearchPage;
+import com.techacademy.service.ReportSearchService;
 import com.techacademy.service.ReportService;
 import com.techacademy.service.UserDetail;
+import com.techacademy.web.ConditionalPages;
 
 @Controller
 @RequestMapping("reports")
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportSearchService reportSearchService;
+    private final EmployeeService employeeService;
+    private final ChangeHistoryService changeHistoryService;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportSearchService reportSearchService,
+            EmployeeService employeeService, ChangeHistoryService changeHistoryService) {
         this.reportService = reportService;
+        this.reportSearchService = reportSearchService;
+        this.employeeService = employeeService;
+        this.changeHistoryService = changeHistoryService;
     }
 
     // 日報一覧画面を表示
     @GetMapping // Spring Securityの@AuthenticationPrincipalでログインユーザーの情報を受け取る
-    public String list(@AuthenticationPrincipal UserDetail userDetail, Model model) {
+    public String list(@AuthenticationPrincipal UserDetail userDetail,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", defaultValue = "" + ReportPage.DEFAULT_SIZE) int size,
+            @RequestParam(name = "count", defaultValue = "false") boolean count, Model model) {
 
-        // 日報を格納するリストの宣言
-        List<Report> reportList;
+        // 表示件数を上限内に丸める
+        int pageSize = ReportPage.normalizeSize(size);
 
+        // 管理者なら他従業員が登録したものを含めた全日報、一般権限のユーザーの場合、自分が登録した日報のみを対象にする(nullは全従業員)
+        String employeeCode = null;
         // ログインユーザーが管理者権限を持っているかチェック
-        if (Role.ADMIN == (userDetail.getEmployee().getRole())) {
+        if (Role.ADMIN != (userDetail.getRole())) {
+            // userDetailを経由して社員番号を取得
+            employeeCode = userDetail.getCode();
+        }
 
-            // 管理者なら他従業員が登録したものを含めた全日報情報を一覧表示
-            reportList = reportService.findAll();
+        // カーソル(前後のページの位置)を元に1ページ分の日報を取得
+        ReportPage page = reportService.findPage(employeeCode, ReportCursor.parse(after),
+                ReportCursor.parse(before), pageSize);
 
-            // 一般権限のユーザーの場合、自分が登録した日報情報のみ一覧表示
-        } else {
+        // 件数のカウントは指定された場合のみ行う(全件を数えるため)
+        if (count) {
+            // 日報の件数を"listSize"の名前でモデルにセット
+            model.addAttribute("listSize", reportService.count(employeeCode));
+        }
+        // 1ページ分の日報を"reportList"の名前でモデルにセット
+        model.addAttribute("reportList", page.content());
+        // 前後のページへのカーソルと表示件数をモデルにセット
+        model.addAttribute("nextCursor", page.next());
+        model.addAttribute("previousCursor", page.previous());
+        model.addAttribute("size", pageSize);
+        // 日報一覧画面に遷移
+        return "reports/list";
 
-            // userDetailを経由してEmployeeエンティティの社員番号プロパティを取得
-            Employee employee = userDetail.getEmployee();
-            // 社員番号によって自分の日報のみを取得
-            reportList = reportService.findByEmployee(employee);
+    }
 
+    // 日報検索画面を表示(タイトル・内容にキーワードを含む日報を関連度の高い順に表示)
+    @GetMapping(value = "/search")
+    public String search(@AuthenticationPrincipal UserDetail userDetail,
+            @RequestParam(name = "q", defaultValue = "") String query,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "" + ReportPage.DEFAULT_SIZE) int size, Model model) {
+
+        // 一覧と同様、一般権限のユーザーは自分が登録した日報のみを対象にする
+        String employeeCode = null;
+        if (Role.ADMIN != (userDetail.getRole())) {
+            employeeCode = userDetail.getCode();
         }
 
-        // 日報の枚数をカウントして件数を"listSize"の名前でモデルにセット
-        model.addAttribute("listSize", reportList.size());
-        // 日報を全件検索して"reportList"の名前で全件分をモデルにセット
-        model.addAttribute("reportList", reportList);
-        // 日報一覧画面に遷移
-        return "reports/list";
+        int pageSize = ReportPage.normalizeSize(size);
+        ReportSearchPage result = reportSearchService.search(query, employeeCode, Math.max(page, 0), pageSize);
 
+        model.addAttribute("q", query);
+        model.addAttribute("result", result);
+        model.addAttribute("reportList", result.content());
+        // 日報検索画面に遷移
+        return "reports/search";
     }
 
     // 日報詳細画面を表示
     @GetMapping(value = "/{id}/")
     // @PathVariableでパスパラメータ{id}の値をInteger型の変数として取得、Modelのインスタンス化
-    public String detail(@PathVariable("id") Integer id, Model model) {
+    public String detail(@PathVariable("id") Integer id, ServletWebRequest request, Model model) {
+
+        // 前回表示から日報・従業員(氏名)に変更がなければ、日報を取得せずに304を返す(更新日時のみを取得して判定)
+        ReportTimestamps timestamps = reportService.findTimestamps(id);
+        if (timestamps != null && ConditionalPages.checkNotModified(request, "report:" + id,
+                timestamps.reportUpdatedAt(), timestamps.employeeUpdatedAt())) {
+            return null;
+        }
 
         // サービスにて主キー(id)にて一件の検索結果をreportに代入
         model.addAttribute("report", reportService.findById(id));
         return "reports/detail";
     }
 
+    // 日報の変更履歴画面を表示
+    @GetMapping(value = "/{id}/history")
+    public String history(@PathVariable("id") Integer id, Model model) {
+
+        model.addAttribute("title", "日報 変更履歴");
+        model.addAttribute("historyList", changeHistoryService.findByReport(id));
+        model.addAttribute("backUrl", "/reports/" + id + "/");
+        return "history/list";
+    }
+
     // 日報新規登録画面を表示
     @GetMapping(value = "/add") // Spring Securityの@AuthenticationPrincipalでログインユーザーの情報を受け取る
     public String create(@AuthenticationPrincipal UserDetail userDetail, Model model, Report report) {
 
-        // userDetailを経由してEmployeeエンティティの氏名プロパティを取得してモデルにセット
-        model.addAttribute("name", userDetail.getEmployee().getName());
+        // userDetailを経由して氏名を取得してモデルにセット
+        model.addAttribute("name", userDetail.getName());
         // モデルにreportエンティティのインスタンスを生成して(引数で受け取った空データ)をセット
         model.addAttribute("report", report);
 
@@ -100,13 +166,19 @@ public class ReportController {
             return create(userDetail, model, report);
         }
 
-        // ログイン中の従業員の社員番号を取得(日報テーブル必須項目)するために、userDetailを経由してEmployeeオブジェクトを取得
-        Employee employee = userDetail.getEmployee();
+        // ログイン中の従業員の社員番号(日報テーブル必須項目)から、従業員の参照を取得(従業員自体はDBから取得しない)
+        Employee employee = employeeService.getReference(userDetail.getCode());
         // reportエンティティにemployeeプロパティをセット
         report.setEmployee(employee);
 
         // サービスsaveメソッドを呼び出し、エラーの種類をresultに格納
-        ErrorKinds result = reportService.save(report);
+        ErrorKinds result;
+        try {
+            result = reportService.save(report);
+        } catch (DataIntegrityViolationException e) {
+            // 同じ従業員・同じ日付の日報が既にある場合は一意制約違反となるため、同一日付チェックエラーとして扱う
+            result = ErrorKinds.DATECHECK_ERROR;
+        }
 
         // もしエラーメッセージクラスの中に該当のエラーの種類があれば
         if (ErrorMessage.contains(result)) {
@@ -126,7 +198,10 @@ public class ReportController {
     // @PathVariableでパスパラメータ{id}の値をInteger型の変数として取得、Modelのインスタンス化
     public String edit(@PathVariable("id") Integer id, Model model) {
         // サービスにて主キー(id)にて一件の検索結果をreportに代入
-        model.addAttribute("report", reportService.findById(id));
+        Report report = reportService.findById(id);
+        model.addAttribute("report", report);
+        // 画面を開いた時点の日付(更新時の同時更新チェックと、変更前の月の集計の更新に使用)
+        model.addAttribute("originalReportDate", report == null ? null : report.getReportDate());
         // 日報更新画面へ遷移
         return "reports/update";
     }
@@ -134,24 +209,26 @@ public class ReportController {
     // 日報更新処理
     @PostMapping(value = "/{id}/update")
     // フォームから送信されたデータをreportエンティティにつめ、@Validatedでエンティティの設定にある入力チェックをし、結果をBindingResultに格納し、モデルのインスタンス化（再表示用）
-    public String update(@PathVariable("id") Integer id, @Validated Report report, BindingResult res, Model model) {
-
-        // フォームの氏名の値は再送信できないため、再取得(日報IDで該当の日報を検索し、originalReportに代入）
-        Report originalReport = reportService.findById(id);
-        // originalReportから取得したemployeeプロパティをセットし、Employeeエンティティの全てのプロパティを取得(th:value="${report.employee.name}"に対応させるため)
-        report.setEmployee(originalReport.getEmployee());
+    // 画面を開いた時点のバージョン(version)・日付を条件に1回のUPDATEで更新する(従業員はDBの日報の値を使う)
+    public String update(@PathVariable("id") Integer id, @Validated Report report, BindingResult res,
+            @RequestParam(name = "originalReportDate", required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate originalReportDate, Model model) {
 
         // 入力チェックにエラーがあれば
         if (res.hasErrors()) {
 
-            // あれば、モデルにreportのデータを渡す
-            model.addAttribute("report", report);
             // モデルの情報を渡して更新画面へ遷移
-            return "reports/update";
+            return redisplay(id, report, originalReportDate, model);
         }
 
-        // サービスsaveメソッドを呼び出し、エラーの種類をresultに格納
-        ErrorKinds result = reportService.update(id, report);
+        // サービスupdateメソッドを呼び出し、エラーの種類をresultに格納
+        ErrorKinds result;
+        try {
+            result = reportService.update(id, report, originalReportDate);
+        } catch (DataIntegrityViolationException e) {
+            // 同じ従業員・同じ日付の日報が既にある場合は一意制約違反となるため、同一日付チェックエラーとして扱う
+            result = ErrorKinds.DATECHECK_ERROR;
+        }
 
         // もしエラーメッセージクラスの中に該当のエラーの種類があれば
         if (ErrorMessage.contains(result)) {
@@ -159,13 +236,25 @@ public class ReportController {
             // エラーメッセージの名称と値を取得してモデルにセット
             model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
             // 日報更新画面を表示するメソッド呼び出し
-            return "reports/update";
+            return redisplay(id, report, originalReportDate, model);
         }
 
         // 該当のErrorMessageなければ(ErrorKindsの列挙子がSUCCESS)日報一覧画面にリダイレクト
         return "redirect:/reports";
     }
 
+    // 日報更新画面を再表示(エラー時のみ。フォームの氏名の値は送信されないため、日報から従業員を再取得)
+    private String redisplay(Integer id, Report report, LocalDate originalReportDate, Model model) {
+        Report originalReport = reportService.findById(id);
+        if (originalReport != null) {
+            // originalReportから取得したemployeeプロパティをセット(th:value="${report.employee.name}"に対応させるため)
+            report.setEmployee(originalReport.getEmployee());
+        }
+        model.addAttribute("report", report);
+        model.addAttribute("originalReportDate", originalReportDate);
+        return "reports/update";
+    }
+
     // 日報削除処理
     @PostMapping(value = "/{id}/delete")
     public String delete(@PathVariable("id") Integer id) {
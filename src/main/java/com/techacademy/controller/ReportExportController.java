@@ -0,0 +1,71 @@
+package com.techacademy.controller;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.techacademy.service.ReportExportService;
+import com.techacademy.service.UserDetail;
+
+@Controller
+@RequestMapping("reports")
+public class ReportExportController {
+
+    // CSVのファイル名に使う日付の形式
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final ReportExportService reportExportService;
+
+    public ReportExportController(ReportExportService reportExportService) {
+        this.reportExportService = reportExportService;
+    }
+
+    // 日報のCSV出力(期間の指定がなければ今月分、一般権限のユーザーは自分の日報のみ)
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@AuthenticationPrincipal UserDetail userDetail,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(name = "employeeCode", required = false) String employeeCode) {
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null ? from : today.withDayOfMonth(1);
+        LocalDate end = to != null ? to : today.withDayOfMonth(today.lengthOfMonth());
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // 管理者は指定した従業員(指定がなければ全従業員)、一般権限のユーザーは自分の日報のみ出力
+        String code = userDetail.isAdmin() ? (employeeCode == null || employeeCode.isEmpty() ? null : employeeCode)
+                : userDetail.getCode();
+
+        // レスポンスに直接書き出す(CSV全体を作ってから返さない。書き出し中はDBの接続を1つ使い続ける)
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            reportExportService.export(start, end, code, writer);
+            writer.flush();
+        };
+
+        String filename = "reports_" + start.format(FILE_DATE) + "_" + end.format(FILE_DATE) + ".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.techacademy.controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.techacademy.entity.Employee;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportImportParser;
+import com.techacademy.service.ReportImportRow;
+import com.techacademy.service.ReportImportService;
+import com.techacademy.service.UserDetail;
+
+@Controller
+@RequestMapping("reports")
+public class ReportImportController {
+
+    private final ReportImportParser reportImportParser;
+    private final ReportImportService reportImportService;
+    private final EmployeeService employeeService;
+
+    public ReportImportController(ReportImportParser reportImportParser, ReportImportService reportImportService,
+            EmployeeService employeeService) {
+        this.reportImportParser = reportImportParser;
+        this.reportImportService = reportImportService;
+        this.employeeService = employeeService;
+    }
+
+    // 日報一括登録画面を表示
+    @GetMapping(value = "/import")
+    public String form(Model model) {
+        model.addAttribute("maxRows", ReportImportParser.MAX_ROWS);
+        return "reports/import";
+    }
+
+    // 日報一括登録処理(CSVまたはJSONのファイルから、ログイン中の従業員の日報として登録)
+    @PostMapping(value = "/import")
+    public String upload(@AuthenticationPrincipal UserDetail userDetail, @RequestParam("file") MultipartFile file,
+            Model model) {
+
+        if (file.isEmpty()) {
+            model.addAttribute("importError", "ファイルを選択してください");
+            return form(model);
+        }
+
+        // ファイルの読み込み(拡張子が.jsonならJSON、それ以外はCSVとして読み込む)
+        List<ReportImportRow> rows;
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename();
+        try {
+            if (filename.toLowerCase(Locale.ROOT).endsWith(".json")) {
+                rows = reportImportParser.parseJson(file.getInputStream());
+            } else {
+                try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                    rows = reportImportParser.parseCsv(reader);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            model.addAttribute("importError", "JSONの形式が正しくありません");
+            return form(model);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("importError", e.getMessage());
+            return form(model);
+        } catch (IOException e) {
+            model.addAttribute("importError", "ファイルを読み込めませんでした");
+            return form(model);
+        }
+
+        try {
+            // ログイン中の従業員の参照(従業員自体はDBから取得しない)の日報として登録
+            Employee employee = employeeService.getReference(userDetail.getCode());
+            model.addAttribute("result", reportImportService.importReports(employee, rows));
+        } catch (DataIntegrityViolationException e) {
+            // 読み込み中に同じ日付の日報が登録された場合は一意制約違反となり、全件登録されない
+            model.addAttribute("importError", "登録中に同じ日付の日報が登録されたため、登録できませんでした。再度実行してください");
+        }
+        return form(model);
+    }
+
+}
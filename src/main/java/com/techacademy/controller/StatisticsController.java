@@ -0,0 +1,43 @@
+package com.techacademy.controller;
+
+import java.time.YearMonth;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.techacademy.service.ReportStatisticsService;
+
+@Controller
+@RequestMapping("statistics")
+public class StatisticsController {
+
+    // 月ごとの件数を表示する月数
+    private static final int MONTHS = 12;
+
+    private final ReportStatisticsService reportStatisticsService;
+
+    public StatisticsController(ReportStatisticsService reportStatisticsService) {
+        this.reportStatisticsService = reportStatisticsService;
+    }
+
+    // 日報集計画面を表示(集計済みのデータのみを参照し、日報テーブルは集計しない)
+    @GetMapping
+    public String dashboard(@RequestParam(name = "month", required = false) YearMonth month, Model model) {
+
+        // 月の指定("yyyy-MM"形式)がなければ今月
+        YearMonth target = month != null ? month : YearMonth.now();
+
+        model.addAttribute("month", target);
+        model.addAttribute("previousMonth", target.minusMonths(1));
+        model.addAttribute("nextMonth", target.plusMonths(1));
+        // 指定した月の従業員ごとの件数・最新の日付
+        model.addAttribute("employeeList", reportStatisticsService.findByMonth(target));
+        // 指定した月までの1年間の月ごとの件数
+        model.addAttribute("monthlyList", reportStatisticsService.sumByMonth(target.minusMonths(MONTHS - 1), target));
+        return "statistics/dashboard";
+    }
+
+}
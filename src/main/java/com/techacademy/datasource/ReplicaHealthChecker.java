@@ -0,0 +1,92 @@
+package com.techacademy.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// レプリカの状態の確認(接続できること、レプリケーションの遅延が許容範囲内であること)
+// 確認できなかったレプリカは振り分けの対象から外し、回復すれば戻す
+// 一度も対象になっていないレプリカは、権限不足等の設定の誤りで全ての参照がプライマリに向かっている可能性があるため、毎回理由を警告する
+public class ReplicaHealthChecker implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaHealthChecker.class);
+
+    // MySQL 8.0.22以降と、それより前(MariaDBを含む)のレプリケーションの状態の取得
+    private static final String[][] STATUS_QUERIES = { { "SHOW REPLICA STATUS", "Seconds_Behind_Source" },
+            { "SHOW SLAVE STATUS", "Seconds_Behind_Master" } };
+
+    private final List<ReplicaNode> replicas;
+    private final long maxLagSeconds;
+    private final boolean requireReplication;
+
+    public ReplicaHealthChecker(List<ReplicaNode> replicas, Duration maxLag, boolean requireReplication) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.requireReplication = requireReplication;
+    }
+
+    @Override
+    public void run() {
+        for (ReplicaNode replica : replicas) {
+            check(replica);
+        }
+    }
+
+    private void check(ReplicaNode replica) {
+        boolean wasHealthy = replica.isHealthy();
+        boolean everHealthy = replica.isEverHealthy();
+        long lag;
+        // 対象外とした理由(ログ出力用)
+        String reason;
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            lag = lagSeconds(connection);
+            reason = lag < 0 ? "replication is not running or not configured"
+                    : "lag " + lag + "s exceeds " + maxLagSeconds + "s";
+        } catch (SQLException e) {
+            // スタックトレースはDEBUGのみ(失敗が続く間、毎回出力しないため)
+            LOGGER.debug("Replica {} check failed", replica.getName(), e);
+            lag = -1;
+            reason = e.toString();
+        }
+        boolean healthy = lag >= 0 && lag <= maxLagSeconds;
+        replica.update(healthy, lag);
+        if (healthy != wasHealthy) {
+            if (healthy) {
+                LOGGER.warn("Replica {} is now in rotation (lag {}s)", replica.getName(), lag);
+            } else {
+                LOGGER.warn("Replica {} is now out of rotation: {}", replica.getName(), reason);
+            }
+        } else if (!healthy && !everHealthy) {
+            LOGGER.warn("Replica {} has not been in rotation yet, reads go to the primary: {}", replica.getName(),
+                    reason);
+        } else if (!healthy) {
+            LOGGER.debug("Replica {} is still out of rotation: {}", replica.getName(), reason);
+        }
+    }
+
+    // 遅延(秒)を取得(レプリケーションが停止していれば-1)
+    private long lagSeconds(Connection connection) throws SQLException {
+        SQLException last = null;
+        for (String[] query : STATUS_QUERIES) {
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(query[0])) {
+                if (!rs.next()) {
+                    // レプリカとして構成されていない
+                    return requireReplication ? -1 : 0;
+                }
+                long seconds = rs.getLong(query[1]);
+                return rs.wasNull() ? -1 : seconds;
+            } catch (SQLException e) {
+                // 古いバージョンの構文で再試行
+                last = e;
+            }
+        }
+        throw last;
+    }
+}
@@ -0,0 +1,29 @@
+package com.techacademy.datasource;
+
+import com.techacademy.metrics.MetricsSource;
+import com.techacademy.metrics.PrometheusTextWriter;
+
+// レプリカの状態と、プライマリ・レプリカへの振り分け件数
+public class ReplicaMetrics implements MetricsSource {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaMetrics(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.describe("jdbc_replica_healthy", "gauge", "1 when the replica is in read rotation.");
+        for (ReplicaNode replica : routingDataSource.getReplicas()) {
+            writer.sample("jdbc_replica_healthy", replica.isHealthy() ? 1 : 0, "replica", replica.getName());
+        }
+        writer.describe("jdbc_replica_lag_seconds", "gauge", "Replication lag at the last check, -1 when unknown.");
+        for (ReplicaNode replica : routingDataSource.getReplicas()) {
+            writer.sample("jdbc_replica_lag_seconds", replica.getLagSeconds(), "replica", replica.getName());
+        }
+        writer.describe("jdbc_routed_connections_total", "counter", "Connections routed to the primary or a replica.");
+        writer.sample("jdbc_routed_connections_total", routingDataSource.getPrimaryCount(), "target", "primary");
+        writer.sample("jdbc_routed_connections_total", routingDataSource.getReplicaCount(), "target", "replica");
+    }
+}
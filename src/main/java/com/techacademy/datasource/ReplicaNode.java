@@ -0,0 +1,50 @@
+package com.techacademy.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// レプリカ1台分の接続プールと、直近の確認結果
+public class ReplicaNode {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+
+    // 振り分けの対象かどうか(接続でき、遅延が許容範囲内)
+    private volatile boolean healthy;
+    // 直近の遅延(秒、取得できなければ-1)
+    private volatile long lagSeconds = -1;
+    // 一度でも振り分けの対象になったか(起動後に一度も対象にならない設定の誤りを警告するため)
+    private volatile boolean everHealthy;
+
+    public ReplicaNode(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean isEverHealthy() {
+        return everHealthy;
+    }
+
+    void update(boolean healthy, long lagSeconds) {
+        this.healthy = healthy;
+        this.lagSeconds = lagSeconds;
+        if (healthy) {
+            everHealthy = true;
+        }
+    }
+}
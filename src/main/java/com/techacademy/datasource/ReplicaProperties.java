@@ -0,0 +1,40 @@
+package com.techacademy.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+// 参照用のレプリカの設定(app.datasource.replicas[0].url等。1件も設定しなければ振り分けを行わない)
+@Data
+@ConfigurationProperties("app.datasource")
+public class ReplicaProperties {
+
+    // レプリカの接続先
+    private List<Replica> replicas = new ArrayList<Replica>();
+
+    // 許容するレプリケーションの遅延(超えたレプリカは振り分けの対象から外す)
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // レプリカの状態(接続・遅延)の確認間隔
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // 更新後、同じセッションの参照をプライマリに振り分ける時間(自分の更新がすぐに見えるようにする)
+    private Duration readAfterWriteWindow = Duration.ofSeconds(5);
+
+    // レプリケーションの状態が取得できない接続先(レプリカとして構成されていないDB)を対象外にするかどうか
+    // 2つのローカルのDBで動作を確認する場合などはfalseにする(遅延は0とみなす)
+    private boolean requireReplication = true;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        // 接続プールの最大接続数
+        private int maximumPoolSize = 10;
+    }
+}
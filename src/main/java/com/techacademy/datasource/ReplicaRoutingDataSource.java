@@ -0,0 +1,118 @@
+package com.techacademy.datasource;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// プライマリとレプリカへの振り分け
+// 読み取り専用のトランザクションは正常なレプリカに順番に振り分け、それ以外(更新・トランザクション外)はプライマリを使う
+// 更新をコミットしたセッションは、一定時間は読み取り専用でもプライマリを使う(レプリケーションの遅延で更新前の値が見えないようにする)
+// 接続の取得はトランザクションの読み取り専用の設定後に行う必要があるため、LazyConnectionDataSourceProxyを介して使う
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    // 更新をコミットした時刻(セッションの属性名)
+    static final String LAST_WRITE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".LAST_WRITE";
+
+    private final List<ReplicaNode> replicas;
+    private final long readAfterWriteNanos;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    // 振り分け先ごとの件数
+    private final AtomicLong primaryCount = new AtomicLong();
+    private final AtomicLong replicaCount = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, Duration readAfterWriteWindow) {
+        this.replicas = replicas;
+        this.readAfterWriteNanos = readAfterWriteWindow.toNanos();
+        Map<Object, Object> targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaNode replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // 更新のトランザクションはコミット後にセッションへ更新時刻を記録する
+            recordWriteOnCommit();
+            primaryCount.incrementAndGet();
+            return PRIMARY;
+        }
+        if (recentlyWritten()) {
+            primaryCount.incrementAndGet();
+            return PRIMARY;
+        }
+
+        // 正常なレプリカを順番に選ぶ(なければプライマリ)
+        int size = replicas.size();
+        int start = Math.floorMod(sequence.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                replicaCount.incrementAndGet();
+                return replica.getName();
+            }
+        }
+        primaryCount.incrementAndGet();
+        return PRIMARY;
+    }
+
+    private void recordWriteOnCommit() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                attributes.setAttribute(LAST_WRITE_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_SESSION);
+            }
+        });
+    }
+
+    private boolean recentlyWritten() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object lastWrite = attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+        return lastWrite instanceof Long nanos && System.nanoTime() - nanos < readAfterWriteNanos;
+    }
+
+    // レプリカの接続プールを閉じる
+    public void close() {
+        for (ReplicaNode replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    public long getPrimaryCount() {
+        return primaryCount.get();
+    }
+
+    public long getReplicaCount() {
+        return replicaCount.get();
+    }
+}
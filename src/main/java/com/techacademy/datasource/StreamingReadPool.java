@@ -0,0 +1,51 @@
+package com.techacademy.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// 大量の行を一定件数ずつ読み込む処理(日報のCSV出力、検索用インデックスの再構築)専用の接続プール
+// MySQLではuseCursorFetch=trueの接続でのみ一定件数ずつ読み込めるが、全ての文がサーバー側のプリペアドステートメントになるため、
+// アプリケーション全体の接続(spring.datasource.url)には指定せず、このプールの接続のみに付ける
+// 読み込みが終わるまで接続を使い続けるため、画面の処理の接続プールとも分けておく
+// DataSourceのBeanにするとSpring Bootの接続プールの自動設定が行われなくなるため、Beanとしては公開しない
+@Component
+public class StreamingReadPool implements AutoCloseable {
+
+    private final HikariDataSource dataSource;
+
+    public StreamingReadPool(DataSourceProperties properties,
+            @Value("${app.streaming-read.pool-size:4}") int poolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeout) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(cursorFetchUrl(properties.determineUrl())).build();
+        this.dataSource.setPoolName("streaming-read");
+        this.dataSource.setMaximumPoolSize(poolSize);
+        // 読み込んでいない間は接続を保持しない
+        this.dataSource.setMinimumIdle(0);
+        this.dataSource.setConnectionTimeout(connectionTimeout);
+    }
+
+    // 一度に読み込む件数を固定したJdbcTemplate
+    public JdbcTemplate jdbcTemplate(int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        return jdbcTemplate;
+    }
+
+    // MySQLの接続URLにuseCursorFetch=trueを付ける(MariaDB等は指定しなくても一定件数ずつ読み込める)
+    static String cursorFetchUrl(String url) {
+        if (url == null || !url.startsWith("jdbc:mysql:") || url.contains("useCursorFetch=")) {
+            return url;
+        }
+        return url + (url.indexOf('?') >= 0 ? "&" : "?") + "useCursorFetch=true";
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
@@ -14,6 +14,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
 
@@ -69,6 +70,12 @@ public class Employee {
     @Column(columnDefinition = "TINYINT", nullable = false)
     private boolean deleteFlg;
 
+    // バージョン(楽観的ロック。更新のたびに1増え、画面を開いた時点から変わっていれば更新しない)
+    // SQLで直接登録する場合(初期データ・一括登録)は既定値の0になる
+    @Version
+    @Column(columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer version;
+
     // 登録日時
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -12,16 +12,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "reports")
+// 同じ従業員・同じ日付の日報は登録できない(論理削除された日報は対象外とするため、有効フラグ(live_flg)を含めた一意制約)
+// 一覧・集計の検索条件に合わせたインデックス(作成はdb/migrationのV2)
+@Table(name = "reports", uniqueConstraints = @UniqueConstraint(name = "uk_reports_employee_date", columnNames = {
+        "employee_code", "report_date", "live_flg" }), indexes = {
+                @Index(name = "idx_reports_live_date", columnList = "delete_flg, report_date"),
+                @Index(name = "idx_reports_employee_live_date", columnList = "employee_code, delete_flg, report_date") })
 // データ検索のとき、論理削除されていないレコードだけを検索できる(delete_flgがfalseのものだけをSQLのwhere句に自動設定)
 @SQLRestriction("delete_flg = false")
 public class Report {
@@ -59,6 +67,18 @@ public class Report {
     @Column(columnDefinition = "TINYINT", nullable = false)
     private boolean deleteFlg;
 
+    // 有効フラグ(論理削除されていなければ1、論理削除済みならNULL)
+    // MYSQLは条件付きの一意インデックスに対応していないため、削除フラグから生成される列を一意制約に含める(NULL同士は重複とみなされない)
+    @Column(columnDefinition = "TINYINT GENERATED ALWAYS AS (IF(delete_flg = 0, 1, NULL)) VIRTUAL",
+            insertable = false, updatable = false)
+    private Boolean liveFlg;
+
+    // バージョン(楽観的ロック。更新のたびに1増え、画面を開いた時点から変わっていれば更新しない)
+    // SQLで直接登録する場合(初期データ・一括登録)は既定値の0になる
+    @Version
+    @Column(columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer version;
+
     // 登録日時
     @Column(nullable = false)
     private LocalDateTime createdAt;
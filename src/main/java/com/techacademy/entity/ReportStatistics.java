@@ -0,0 +1,34 @@
+package com.techacademy.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// 従業員ごと・月ごとの日報の集計(論理削除されていない日報のみ)
+// 日報の登録・更新・削除と同じトランザクションで該当の月のみ再集計し、画面表示時にreportsを集計しない
+@Data
+@Entity
+@Table(name = "report_statistics", indexes = @Index(name = "idx_report_statistics_month", columnList = "report_month"))
+public class ReportStatistics {
+
+    @EmbeddedId
+    private ReportStatisticsId id;
+
+    // 日報の件数
+    @Column(nullable = false)
+    private long reportCount;
+
+    // 最新の日報の日付
+    @Column(nullable = false)
+    private LocalDate latestReportDate;
+
+    // 最後に日報が登録された日時
+    @Column(nullable = false)
+    private LocalDateTime lastSubmittedAt;
+}
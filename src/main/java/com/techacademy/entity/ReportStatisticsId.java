@@ -0,0 +1,27 @@
+package com.techacademy.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 日報集計の主キー(社員番号と月)
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportStatisticsId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 社員番号
+    @Column(length = 10)
+    private String employeeCode;
+
+    // 月(その月の1日)
+    private LocalDate reportMonth;
+}
@@ -0,0 +1,16 @@
+package com.techacademy.history;
+
+// 変更の種類
+public enum ChangeAction {
+    CREATE("登録"), UPDATE("更新"), DELETE("削除");
+
+    private final String name;
+
+    private ChangeAction(String name) {
+        this.name = name;
+    }
+
+    public String getValue() {
+        return this.name;
+    }
+}
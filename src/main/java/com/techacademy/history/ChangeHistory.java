@@ -0,0 +1,9 @@
+package com.techacademy.history;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// 画面に表示する変更履歴1件(before・afterは項目名 → 値、なければ空)
+public record ChangeHistory(long id, ChangeAction action, String changedBy, LocalDateTime changedAt,
+        Map<String, Object> before, Map<String, Object> after) {
+}
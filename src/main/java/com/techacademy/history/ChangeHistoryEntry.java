@@ -0,0 +1,8 @@
+package com.techacademy.history;
+
+import java.time.LocalDateTime;
+
+// 書き込み待ちの変更履歴1件(before・afterは変更前・変更後の内容のJSON、登録時のbefore・削除時のafterはnull)
+public record ChangeHistoryEntry(ChangeTarget target, String key, ChangeAction action, String changedBy,
+        LocalDateTime changedAt, String before, String after) {
+}
@@ -0,0 +1,191 @@
+package com.techacademy.history;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 変更履歴の書き込み(呼び出し元はキューに積むだけで、別スレッドがまとめてINSERTする)
+// キューが一杯の場合は一定時間待ち、それでも空かなければ呼び出し元がキューの分もまとめて書き込む(履歴は失わない)
+// 終了時はWebサーバーの停止後にキューに残った分を全て書き込む
+@Component
+public class ChangeHistoryWriter implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeHistoryWriter.class);
+
+    // キューが空の場合に次の履歴を待つ時間(停止の確認間隔)
+    private static final long POLL_MILLIS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<ChangeHistoryEntry> queue;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    // 書き込んだ件数、呼び出し元で書き込んだ件数(キューが一杯だった)、書き込みに失敗した件数
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong callerWrittenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public ChangeHistoryWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${app.change-history.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.change-history.batch-size:500}") int batchSize,
+            @Value("${app.change-history.offer-timeout:1s}") Duration offerTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 呼び出し元のトランザクション(コミット後の処理中)とは別のトランザクションで書き込む
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<ChangeHistoryEntry>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+    }
+
+    // 履歴を書き込み待ちのキューに積む
+    public void submit(ChangeHistoryEntry entry) {
+        if (running) {
+            try {
+                if (queue.offer(entry, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    // 停止と同時に積まれた場合は、停止時の書き込みから漏れないよう自分で書き込む
+                    if (!running) {
+                        flush();
+                    }
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // キューが一杯、または停止中は呼び出し元で書き込む(キューに残っている分も1回分まとめて書き込む)
+        List<ChangeHistoryEntry> batch = new ArrayList<ChangeHistoryEntry>();
+        batch.add(entry);
+        queue.drainTo(batch, batchSize - 1);
+        callerWrittenCount.addAndGet(batch.size());
+        write(batch);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "change-history-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 停止(書き込み中の分を待ち、キューに残った分を全て書き込む)
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Webサーバーの停止(処理中のリクエストの完了)より後に停止する
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<ChangeHistoryEntry> batch = new ArrayList<ChangeHistoryEntry>(batchSize);
+        while (running) {
+            try {
+                ChangeHistoryEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // キューに残っている分を全て書き込む
+    public void flush() {
+        List<ChangeHistoryEntry> batch = new ArrayList<ChangeHistoryEntry>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // 対象(日報・従業員)ごとのテーブルに、1回のバッチでINSERT
+    private void write(List<ChangeHistoryEntry> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ChangeTarget target : ChangeTarget.values()) {
+                    List<Object[]> rows = new ArrayList<Object[]>();
+                    for (ChangeHistoryEntry entry : batch) {
+                        if (entry.target() == target) {
+                            rows.add(new Object[] { entry.key(), entry.action().name(), entry.changedBy(),
+                                    Timestamp.valueOf(entry.changedAt()), entry.before(), entry.after() });
+                        }
+                    }
+                    if (!rows.isEmpty()) {
+                        jdbcTemplate.batchUpdate("INSERT INTO " + target.getTable() + "(" + target.getKeyColumn()
+                                + ",action,changed_by,changed_at,before_data,after_data) VALUES (?,?,?,?,?,?)", rows);
+                    }
+                }
+            });
+            writtenCount.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            LOGGER.error("Failed to write {} change history entries", batch.size(), e);
+        }
+    }
+
+    // 書き込み待ちの件数
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getCallerWrittenCount() {
+        return callerWrittenCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
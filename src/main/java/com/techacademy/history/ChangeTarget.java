@@ -0,0 +1,22 @@
+package com.techacademy.history;
+
+// 変更履歴の対象(履歴のテーブルと、対象を特定する列)
+public enum ChangeTarget {
+    REPORT("report_history", "report_id"), EMPLOYEE("employee_history", "employee_code");
+
+    private final String table;
+    private final String keyColumn;
+
+    private ChangeTarget(String table, String keyColumn) {
+        this.table = table;
+        this.keyColumn = keyColumn;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+}
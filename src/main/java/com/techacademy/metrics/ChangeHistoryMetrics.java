@@ -0,0 +1,31 @@
+package com.techacademy.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.techacademy.history.ChangeHistoryWriter;
+
+// 変更履歴の書き込み待ちの件数と、書き込んだ件数
+@Component
+public class ChangeHistoryMetrics implements MetricsSource {
+
+    private final ChangeHistoryWriter changeHistoryWriter;
+
+    public ChangeHistoryMetrics(ChangeHistoryWriter changeHistoryWriter) {
+        this.changeHistoryWriter = changeHistoryWriter;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.single("change_history_queue_capacity", "gauge", "Capacity of the change history queue.",
+                changeHistoryWriter.getCapacity());
+        writer.single("change_history_queued", "gauge", "Change history entries waiting to be written.",
+                changeHistoryWriter.getQueued());
+        writer.single("change_history_written_total", "counter", "Change history entries written.",
+                changeHistoryWriter.getWrittenCount());
+        writer.single("change_history_caller_written_total", "counter",
+                "Entries written on the request thread because the queue was full.",
+                changeHistoryWriter.getCallerWrittenCount());
+        writer.single("change_history_failed_total", "counter", "Entries that could not be written.",
+                changeHistoryWriter.getFailedCount());
+    }
+}
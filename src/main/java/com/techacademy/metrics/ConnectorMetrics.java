@@ -0,0 +1,76 @@
+package com.techacademy.metrics;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+// Tomcatのコネクタ(HTTP・AJP)ごとの処理スレッド・待ち行列・接続数
+// 処理中のスレッド数が上限に近づき、待ち行列が伸びていればスレッドが不足している
+@Component
+public class ConnectorMetrics implements MetricsSource, ApplicationListener<WebServerInitializedEvent> {
+
+    // Webサーバーの起動後に設定する(起動前は出力しない)
+    private volatile List<AbstractProtocol<?>> protocols = List.of();
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer webServer) {
+            protocols = List.of(webServer.getTomcat().getService().findConnectors()).stream()
+                    .map(Connector::getProtocolHandler).filter(AbstractProtocol.class::isInstance)
+                    .<AbstractProtocol<?>>map(AbstractProtocol.class::cast).toList();
+        }
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        List<AbstractProtocol<?>> current = protocols;
+        if (current.isEmpty()) {
+            return;
+        }
+
+        // スレッドプールの状況(仮想スレッドを使うコネクタはスレッド数の上限がないため出力しない)
+        List<AbstractProtocol<?>> pooled = current.stream()
+                .filter(protocol -> protocol.getExecutor() instanceof ThreadPoolExecutor).toList();
+        write(writer, pooled, "tomcat_connector_threads_max", "gauge", "Maximum request processing threads.",
+                protocol -> executor(protocol).getMaximumPoolSize());
+        write(writer, pooled, "tomcat_connector_threads_current", "gauge", "Request processing threads started.",
+                protocol -> executor(protocol).getPoolSize());
+        write(writer, pooled, "tomcat_connector_threads_busy", "gauge", "Threads currently processing a request.",
+                protocol -> executor(protocol).getActiveCount());
+        write(writer, pooled, "tomcat_connector_queued", "gauge",
+                "Requests read from a connection and waiting for a free thread.",
+                protocol -> executor(protocol).getQueue().size());
+
+        write(writer, current, "tomcat_connector_connections", "gauge", "Open connections.",
+                AbstractProtocol::getConnectionCount);
+        write(writer, current, "tomcat_connector_connections_max", "gauge",
+                "Connection limit before new connections wait in the accept queue, -1 when unlimited.",
+                AbstractProtocol::getMaxConnections);
+        write(writer, current, "tomcat_connector_accept_count", "gauge",
+                "Accept queue length requested from the OS for connections over the limit.",
+                AbstractProtocol::getAcceptCount);
+    }
+
+    private static void write(PrometheusTextWriter writer, List<AbstractProtocol<?>> protocols, String name,
+            String type, String help, ToDoubleFunction<AbstractProtocol<?>> value) {
+        if (protocols.isEmpty()) {
+            return;
+        }
+        writer.describe(name, type, help);
+        for (AbstractProtocol<?> protocol : protocols) {
+            // コネクタの名前(http-nio-8080、ajp-nio2-8009等)
+            writer.sample(name, value.applyAsDouble(protocol), "connector", protocol.getName().replace("\"", ""));
+        }
+    }
+
+    private static ThreadPoolExecutor executor(AbstractProtocol<?> protocol) {
+        return (ThreadPoolExecutor) protocol.getExecutor();
+    }
+}
@@ -0,0 +1,74 @@
+package com.techacademy.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// コントローラのハンドラ1つ分の集計(処理時間、エラー数、一覧の件数、Hibernateの統計)
+public class EndpointMetrics {
+
+    private final String handler;
+    private final String method;
+    private final String uri;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder entityLoads = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public EndpointMetrics(String handler, String method, String uri) {
+        this.handler = handler;
+        this.method = method;
+        this.uri = uri;
+    }
+
+    // 1リクエスト分を記録(statisticsはHibernateの統計を取得できなかった場合null)
+    void record(long nanos, boolean error, long rowCount, RequestStatistics statistics) {
+        latency.record(nanos);
+        if (error) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        if (statistics != null) {
+            statements.add(statistics.getStatements());
+            entityLoads.add(statistics.getEntityLoads());
+            flushes.add(statistics.getFlushes());
+        }
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getEntityLoads() {
+        return entityLoads.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package com.techacademy.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.techacademy.web.FragmentRenderCache;
+
+// 画面の共通部分(ヘッダー・サイドメニュー)のキャッシュのヒット数・ミス数・削除数・件数
+@Component
+public class FragmentRenderCacheMetrics implements MetricsSource {
+
+    private final FragmentRenderCache fragmentRenderCache;
+
+    public FragmentRenderCacheMetrics(FragmentRenderCache fragmentRenderCache) {
+        this.fragmentRenderCache = fragmentRenderCache;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.single("fragment_cache_hits_total", "counter", "Shared fragments served from the render cache.",
+                fragmentRenderCache.getHitCount());
+        writer.single("fragment_cache_misses_total", "counter", "Shared fragments rendered by the template engine.",
+                fragmentRenderCache.getMissCount());
+        writer.single("fragment_cache_evictions_total", "counter",
+                "Rendered fragments removed because the cache was full.", fragmentRenderCache.getEvictionCount());
+        writer.single("fragment_cache_size", "gauge", "Rendered fragments currently cached.",
+                fragmentRenderCache.size());
+    }
+}
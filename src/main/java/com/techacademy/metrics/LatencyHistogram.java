@@ -0,0 +1,73 @@
+package com.techacademy.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// 処理時間のヒストグラム(固定の区切りごとの件数と合計時間を保持し、パーセンタイルはその件数から推定する)
+public class LatencyHistogram {
+
+    // 区切り(秒)、最後の区切りを超えたものは+Infに数える
+    static final double[] BOUNDS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // 処理時間(ナノ秒)を記録
+    public void record(long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        int index = 0;
+        while (index < BOUNDS.length && seconds > BOUNDS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    // 区切りごとの累積件数(Prometheusのle="区切り"に対応し、最後の要素は+Inf)
+    public long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+
+    // パーセンタイル(秒)を区切り内の線形補間で推定(記録がなければ0、+Infに入る場合は最後の区切りを返す)
+    public double quantile(double q) {
+        long[] counts = cumulativeCounts();
+        long total = counts[counts.length - 1];
+        if (total == 0) {
+            return 0;
+        }
+        double rank = q * total;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (counts[i] >= rank) {
+                double lower = i == 0 ? 0 : BOUNDS[i - 1];
+                long lowerCount = i == 0 ? 0 : counts[i - 1];
+                long inBucket = counts[i] - lowerCount;
+                if (inBucket == 0) {
+                    return BOUNDS[i];
+                }
+                return lower + (BOUNDS[i] - lower) * (rank - lowerCount) / inBucket;
+            }
+        }
+        return BOUNDS[BOUNDS.length - 1];
+    }
+}
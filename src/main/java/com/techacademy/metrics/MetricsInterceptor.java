@@ -0,0 +1,83 @@
+package com.techacademy.metrics;
+
+import java.util.Collection;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// コントローラのハンドラごとに処理時間、エラー数、一覧の件数、Hibernateの統計を記録する
+public class MetricsInterceptor implements AsyncHandlerInterceptor {
+
+    // リクエスト属性名(開始時刻、一覧の件数)
+    private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start";
+    private static final String ROWS_ATTRIBUTE = MetricsInterceptor.class.getName() + ".rows";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            // 非同期処理の再ディスパッチでは最初の開始時刻を引き継ぐ
+            if (request.getAttribute(START_ATTRIBUTE) == null) {
+                request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            }
+            RequestStatistics.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        if (modelAndView == null) {
+            return;
+        }
+        // モデルに登録された一覧(Collection)の件数を合計する
+        long rows = 0;
+        for (Object value : modelAndView.getModel().values()) {
+            if (value instanceof Collection<?> collection) {
+                rows += collection.size();
+            }
+        }
+        request.setAttribute(ROWS_ATTRIBUTE, rows);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        RequestStatistics statistics = RequestStatistics.end();
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - (Long) start;
+
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        boolean error = ex != null || response.getStatus() >= 500;
+        Object rows = request.getAttribute(ROWS_ATTRIBUTE);
+
+        metricsRegistry.record(name, request.getMethod(), uri, nanos, error, rows != null ? (Long) rows : 0,
+                statistics);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        // 非同期処理に移った場合、このスレッドでの集計を破棄する(完了時の再ディスパッチで記録する)
+        RequestStatistics.end();
+    }
+}
@@ -0,0 +1,99 @@
+package com.techacademy.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+// コントローラのハンドラごとの集計を保持し、Prometheusのテキスト形式で出力する
+@Component
+public class MetricsRegistry {
+
+    // パーセンタイルとして出力する値
+    private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+    private final List<MetricsSource> sources;
+
+    public MetricsRegistry(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    // 1リクエスト分を記録
+    public void record(String handler, String method, String uri, long nanos, boolean error, long rows,
+            RequestStatistics statistics) {
+        String key = handler + ' ' + method + ' ' + uri;
+        EndpointMetrics metrics = endpoints.computeIfAbsent(key, k -> new EndpointMetrics(handler, method, uri));
+        metrics.record(nanos, error, rows, statistics);
+    }
+
+    // ハンドラごとの集計(出力・確認用)
+    public Collection<EndpointMetrics> getEndpoints() {
+        return endpoints.values();
+    }
+
+    // 全てのメトリクスをPrometheusのテキスト形式で出力
+    public String scrape() {
+        PrometheusTextWriter writer = new PrometheusTextWriter();
+        Collection<EndpointMetrics> values = endpoints.values();
+
+        writer.describe("http_server_requests_seconds", "histogram", "Request latency per controller handler.");
+        for (EndpointMetrics metrics : values) {
+            long[] counts = metrics.getLatency().cumulativeCounts();
+            for (int i = 0; i < counts.length; i++) {
+                String le = i < LatencyHistogram.BOUNDS.length ? Double.toString(LatencyHistogram.BOUNDS[i]) : "+Inf";
+                writer.sample("http_server_requests_seconds_bucket", counts[i], labels(metrics, "le", le));
+            }
+            writer.sample("http_server_requests_seconds_sum", metrics.getLatency().getSumSeconds(), labels(metrics));
+            writer.sample("http_server_requests_seconds_count", metrics.getLatency().getCount(), labels(metrics));
+        }
+
+        writer.describe("http_server_requests_quantile_seconds", "gauge",
+                "Request latency percentiles per controller handler, estimated from the histogram.");
+        for (EndpointMetrics metrics : values) {
+            for (double quantile : QUANTILES) {
+                writer.sample("http_server_requests_quantile_seconds", metrics.getLatency().quantile(quantile),
+                        labels(metrics, "quantile", Double.toString(quantile)));
+            }
+        }
+
+        counter(writer, values, "http_server_requests_errors_total",
+                "Requests that ended with an exception or a 5xx status.", EndpointMetrics::getErrors);
+        counter(writer, values, "http_server_response_rows_total", "Rows returned by list endpoints.",
+                EndpointMetrics::getRows);
+        counter(writer, values, "hibernate_request_statements_total", "JDBC statements executed per handler.",
+                EndpointMetrics::getStatements);
+        counter(writer, values, "hibernate_request_entity_loads_total", "Entities loaded per handler.",
+                EndpointMetrics::getEntityLoads);
+        counter(writer, values, "hibernate_request_flushes_total", "Session flushes per handler.",
+                EndpointMetrics::getFlushes);
+
+        for (MetricsSource source : sources) {
+            source.writeTo(writer);
+        }
+        return writer.toString();
+    }
+
+    private static void counter(PrometheusTextWriter writer, Collection<EndpointMetrics> values, String name,
+            String help, ToDoubleFunction<EndpointMetrics> value) {
+        writer.describe(name, "counter", help);
+        for (EndpointMetrics metrics : values) {
+            writer.sample(name, value.applyAsDouble(metrics), labels(metrics));
+        }
+    }
+
+    private static String[] labels(EndpointMetrics metrics, String... extra) {
+        String[] labels = new String[6 + extra.length];
+        labels[0] = "handler";
+        labels[1] = metrics.getHandler();
+        labels[2] = "method";
+        labels[3] = metrics.getMethod();
+        labels[4] = "uri";
+        labels[5] = metrics.getUri();
+        System.arraycopy(extra, 0, labels, 6, extra.length);
+        return labels;
+    }
+}
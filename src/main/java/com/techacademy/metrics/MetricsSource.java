@@ -0,0 +1,7 @@
+package com.techacademy.metrics;
+
+// メトリクスの出力元(Beanとして登録すると、管理用エンドポイントの出力に含まれる)
+public interface MetricsSource {
+
+    void writeTo(PrometheusTextWriter writer);
+}
@@ -0,0 +1,36 @@
+package com.techacademy.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.techacademy.security.BoundedPasswordEncoder;
+
+// パスワードのハッシュ化用スレッドプールの待ち行列・実行状況
+@Component
+public class PasswordEncoderMetrics implements MetricsSource {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+
+    public PasswordEncoderMetrics(BoundedPasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.single("password_hashing_queue_size", "gauge", "Hashing tasks waiting for a thread.",
+                passwordEncoder.getQueueSize());
+        writer.single("password_hashing_queue_capacity", "gauge", "Maximum hashing tasks that can wait.",
+                passwordEncoder.getQueueCapacity());
+        writer.single("password_hashing_active", "gauge", "Hashing tasks currently running.",
+                passwordEncoder.getActiveCount());
+        writer.single("password_hashing_threads", "gauge", "Size of the hashing thread pool.",
+                passwordEncoder.getPoolSize());
+        writer.single("password_hashing_completed_total", "counter", "Hashing tasks completed.",
+                passwordEncoder.getCompletedCount());
+        writer.single("password_hashing_rejected_total", "counter",
+                "Login password checks rejected because the queue was full.", passwordEncoder.getRejectedCount());
+        writer.single("password_hashing_timeouts_total", "counter", "Login password checks that exceeded the timeout.",
+                passwordEncoder.getTimedOutCount());
+        writer.single("password_hashing_queue_wait_seconds_total", "counter", "Total time tasks spent in the queue.",
+                passwordEncoder.getQueueWaitSeconds());
+    }
+}
@@ -0,0 +1,53 @@
+package com.techacademy.metrics;
+
+// Prometheusのテキスト形式でメトリクスを出力する
+// 同じ名前のメトリクスはまとめて出力する必要があるため、HELPとTYPEはdescribeで1回だけ出力する
+public class PrometheusTextWriter {
+
+    private final StringBuilder out = new StringBuilder();
+
+    // メトリクスの説明と種類(counter/gauge/histogram)を出力
+    public PrometheusTextWriter describe(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    // 値を出力(labelsは名前と値を交互に指定)
+    public PrometheusTextWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    // 説明と値を1つだけ出力(ラベルのないメトリクス用)
+    public PrometheusTextWriter single(String name, String type, String help, double value) {
+        return describe(name, type, help).sample(name, value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
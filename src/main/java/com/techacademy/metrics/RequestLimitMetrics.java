@@ -0,0 +1,46 @@
+package com.techacademy.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.techacademy.web.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+// 同時処理数の上限と、DBの接続プールの使用状況
+@Component
+public class RequestLimitMetrics implements MetricsSource {
+
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    // 更新用(プライマリ)の接続プール(レプリカへの振り分けを行う場合も接続プールは1つのみ)
+    private final ObjectProvider<HikariDataSource> dataSource;
+
+    public RequestLimitMetrics(ConcurrencyLimitFilter concurrencyLimitFilter,
+            ObjectProvider<HikariDataSource> dataSource) {
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.single("http_requests_max_concurrent", "gauge", "Concurrent request limit, 0 when unlimited.",
+                concurrencyLimitFilter.getMaxConcurrent());
+        writer.single("http_requests_in_flight", "gauge", "Requests currently holding a permit.",
+                concurrencyLimitFilter.getInFlight());
+        writer.single("http_requests_queued", "gauge", "Requests waiting for a permit.",
+                concurrencyLimitFilter.getQueued());
+        writer.single("http_requests_rejected_total", "counter", "Requests answered with 503 at the limit.",
+                concurrencyLimitFilter.getRejectedCount());
+
+        // 接続プールが起動済みの場合のみ
+        HikariDataSource hikari = dataSource.getIfUnique();
+        if (hikari != null && hikari.getHikariPoolMXBean() != null) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            writer.single("jdbc_connections_max", "gauge", "Maximum pool size.", hikari.getMaximumPoolSize());
+            writer.single("jdbc_connections_active", "gauge", "Connections in use.", pool.getActiveConnections());
+            writer.single("jdbc_connections_idle", "gauge", "Idle connections.", pool.getIdleConnections());
+            writer.single("jdbc_connections_pending", "gauge", "Threads waiting for a connection.",
+                    pool.getThreadsAwaitingConnection());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.techacademy.metrics;
+
+// 1リクエスト中のHibernateの統計(SQL実行数、エンティティ読込数、フラッシュ数)
+// リクエストを処理するスレッドに紐づけ、Hibernateのリスナーから加算する
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<RequestStatistics>();
+
+    private long statements;
+    private long entityLoads;
+    private long flushes;
+
+    private RequestStatistics() {
+    }
+
+    // リクエスト開始時に集計を開始
+    public static void begin() {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    // リクエスト終了時に集計を終了して結果を返す(開始していなければnull)
+    public static RequestStatistics end() {
+        RequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    // SQLの実行(バッチ実行は1回として数える)
+    static void statementExecuted() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+        }
+    }
+
+    // エンティティの読込
+    static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads++;
+        }
+    }
+
+    // フラッシュの実行
+    static void flushed() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.flushes++;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.techacademy.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// セッションごとに生成され、SQLの実行とフラッシュをリクエストの統計に加算する
+// (hibernate.session.events.autoで登録)
+public class RequestStatisticsSessionListener implements SessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestStatistics.statementExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestStatistics.statementExecuted();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestStatistics.flushed();
+    }
+}
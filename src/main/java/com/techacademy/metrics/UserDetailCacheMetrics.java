@@ -0,0 +1,27 @@
+package com.techacademy.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.techacademy.service.UserDetailCache;
+
+// 認証用ユーザ情報キャッシュのヒット数・ミス数・削除数・件数
+@Component
+public class UserDetailCacheMetrics implements MetricsSource {
+
+    private final UserDetailCache userDetailCache;
+
+    public UserDetailCacheMetrics(UserDetailCache userDetailCache) {
+        this.userDetailCache = userDetailCache;
+    }
+
+    @Override
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.single("user_detail_cache_hits_total", "counter", "Principal lookups served from the cache.",
+                userDetailCache.getHitCount());
+        writer.single("user_detail_cache_misses_total", "counter", "Principal lookups that went to the database.",
+                userDetailCache.getMissCount());
+        writer.single("user_detail_cache_evictions_total", "counter",
+                "Entries removed by size, expiry or employee changes.", userDetailCache.getEvictionCount());
+        writer.single("user_detail_cache_size", "gauge", "Entries currently cached.", userDetailCache.size());
+    }
+}
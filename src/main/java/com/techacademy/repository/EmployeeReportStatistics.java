@@ -0,0 +1,9 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// 従業員ごとの日報の集計(ダッシュボード表示用の読み取り専用データ)
+public record EmployeeReportStatistics(String employeeCode, String employeeName, long reportCount,
+        LocalDate latestReportDate, LocalDateTime lastSubmittedAt) {
+}
@@ -1,8 +1,39 @@
 package com.techacademy.repository;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
 
 public interface EmployeeRepository extends JpaRepository<Employee, String> {
-}
\ No newline at end of file
+
+    // 更新日時のみを取得(詳細画面の条件付きGET用)
+    @Query("SELECT e.updatedAt FROM Employee e WHERE e.code = :code")
+    Optional<LocalDateTime> findUpdatedAtByCode(@Param("code") String code);
+
+    // 画面を開いた時点のバージョンのままであれば、氏名・権限を1回のUPDATEで更新(パスワードは変更しない)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.name = :name, e.role = :role, e.updatedAt = :updatedAt, e.version = e.version + 1"
+            + " WHERE e.code = :code AND e.version = :version AND e.deleteFlg = false")
+    int updateVersioned(@Param("code") String code, @Param("version") Integer version, @Param("name") String name,
+            @Param("role") Role role, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 画面を開いた時点のバージョンのままであれば、氏名・権限・パスワードを1回のUPDATEで更新
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.name = :name, e.role = :role, e.password = :password, e.updatedAt = :updatedAt,"
+            + " e.version = e.version + 1 WHERE e.code = :code AND e.version = :version AND e.deleteFlg = false")
+    int updateVersionedWithPassword(@Param("code") String code, @Param("version") Integer version,
+            @Param("name") String name, @Param("role") Role role, @Param("password") String password,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // パスワードのハッシュのみを更新(ログイン時の再ハッシュ用、更新日時は変更しない)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.password = :password WHERE e.code = :code")
+    int updatePassword(@Param("code") String code, @Param("password") String password);
+}
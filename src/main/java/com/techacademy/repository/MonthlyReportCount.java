@@ -0,0 +1,7 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 月ごとの全従業員の日報の件数
+public record MonthlyReportCount(LocalDate reportMonth, long reportCount) {
+}
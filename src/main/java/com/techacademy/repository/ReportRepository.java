@@ -1,10 +1,16 @@
 package com.techacademy.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
@@ -12,9 +18,40 @@ import com.techacademy.entity.Report;
 public interface ReportRepository extends JpaRepository<Report, Integer> {
 
     // 社員番号で検索
+    @EntityGraph(attributePaths = "employee")
     List<Report> findByEmployee(Employee employee);
 
-    // ログイン中の社員番号と入力した日付で検索
-    Optional<Report> findByEmployeeAndReportDate(Employee employee, LocalDate reportDate);
+    // 指定した日付のうち、既に日報が登録されている日付を取得(一括登録の重複チェックを1回のSQLで行う)
+    @Query("SELECT r.reportDate FROM Report r WHERE r.employee.code = :employeeCode AND r.reportDate IN :reportDates")
+    List<LocalDate> findReportDates(@Param("employeeCode") String employeeCode,
+            @Param("reportDates") Collection<LocalDate> reportDates);
+
+    // IDで検索(氏名表示のため従業員も同じSQLで取得する)
+    @EntityGraph(attributePaths = "employee")
+    Optional<Report> findWithEmployeeById(Integer id);
+
+    // 画面を開いた時点のバージョン・従業員・日付のままであれば、1回のUPDATEで更新(更新件数を返し、0件なら同時更新)
+    // 更新前に日報を取得しない(永続化コンテキストの日報は古くなるためクリアする)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.reportDate = :reportDate, r.title = :title, r.content = :content,"
+            + " r.updatedAt = :updatedAt, r.version = r.version + 1 WHERE r.id = :id AND r.version = :version"
+            + " AND r.employee.code = :employeeCode AND r.reportDate = :originalReportDate AND r.deleteFlg = false")
+    int updateVersioned(@Param("id") Integer id, @Param("version") Integer version,
+            @Param("employeeCode") String employeeCode, @Param("originalReportDate") LocalDate originalReportDate,
+            @Param("reportDate") LocalDate reportDate, @Param("title") String title, @Param("content") String content,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 日報と従業員の更新日時のみを取得(詳細画面の条件付きGET用)
+    @Query("SELECT new com.techacademy.repository.ReportTimestamps(r.updatedAt, e.updatedAt)"
+            + " FROM Report r JOIN r.employee e WHERE r.id = :id")
+    Optional<ReportTimestamps> findTimestampsById(@Param("id") Integer id);
+
+    // 社員番号に紐づく日報をまとめて論理削除(1回のUPDATEで実行し、更新件数を返す)
+    // 実行前に未反映の変更をDBに反映し、実行後は永続化コンテキストをクリアして更新前の日報が残らないようにする
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.deleteFlg = true, r.updatedAt = :updatedAt, r.version = r.version + 1"
+            + " WHERE r.employee.code = :employeeCode AND r.deleteFlg = false")
+    int softDeleteByEmployeeCode(@Param("employeeCode") String employeeCode,
+            @Param("updatedAt") LocalDateTime updatedAt);
 
 }
@@ -0,0 +1,74 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.techacademy.entity.ReportStatistics;
+import com.techacademy.entity.ReportStatisticsId;
+
+public interface ReportStatisticsRepository extends JpaRepository<ReportStatistics, ReportStatisticsId> {
+
+    // 1人・1か月分の集計を削除(再集計の前に実行。未反映の日報の変更を先にDBに反映する)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM report_statistics WHERE employee_code = :employeeCode AND report_month = :month",
+            nativeQuery = true)
+    int deleteMonth(@Param("employeeCode") String employeeCode, @Param("month") LocalDate month);
+
+    // 1人・1か月分を日報から集計(日報がなければ行を作らない。一意制約のインデックスで該当月の日報のみを読む)
+    @Modifying
+    @Query(value = "INSERT INTO report_statistics(employee_code, report_month, report_count, latest_report_date,"
+            + " last_submitted_at) SELECT employee_code, :month, COUNT(*), MAX(report_date), MAX(created_at)"
+            + " FROM reports WHERE employee_code = :employeeCode AND report_date BETWEEN :month AND :monthEnd"
+            + " AND delete_flg = 0 GROUP BY employee_code", nativeQuery = true)
+    int insertMonth(@Param("employeeCode") String employeeCode, @Param("month") LocalDate month,
+            @Param("monthEnd") LocalDate monthEnd);
+
+    // 従業員の集計を全て削除(従業員削除時)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM report_statistics WHERE employee_code = :employeeCode", nativeQuery = true)
+    int deleteByEmployeeCode(@Param("employeeCode") String employeeCode);
+
+    // 1か月分の全従業員の集計を削除(再構築時。月ごとに別のトランザクションで実行する)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM report_statistics WHERE report_month = :month", nativeQuery = true)
+    int deleteAllOfMonth(@Param("month") LocalDate month);
+
+    // 1か月分の全従業員を日報から集計(再構築時。日付のインデックスで該当月の日報のみを読む)
+    @Modifying
+    @Query(value = "INSERT INTO report_statistics(employee_code, report_month, report_count, latest_report_date,"
+            + " last_submitted_at) SELECT employee_code, :month, COUNT(*), MAX(report_date), MAX(created_at)"
+            + " FROM reports WHERE delete_flg = 0 AND report_date BETWEEN :month AND :monthEnd"
+            + " GROUP BY employee_code", nativeQuery = true)
+    int insertAllOfMonth(@Param("month") LocalDate month, @Param("monthEnd") LocalDate monthEnd);
+
+    // 再構築する月の範囲(日報の日付、集計済みの月の最小・最大。なければnull)
+    @Query("SELECT MIN(r.reportDate) FROM Report r")
+    LocalDate findMinReportDate();
+
+    @Query("SELECT MAX(r.reportDate) FROM Report r")
+    LocalDate findMaxReportDate();
+
+    @Query("SELECT MIN(s.id.reportMonth) FROM ReportStatistics s")
+    LocalDate findMinReportMonth();
+
+    @Query("SELECT MAX(s.id.reportMonth) FROM ReportStatistics s")
+    LocalDate findMaxReportMonth();
+
+    // 指定した月の従業員ごとの集計(件数の多い順)
+    @Query("SELECT new com.techacademy.repository.EmployeeReportStatistics(e.code, e.name, s.reportCount,"
+            + " s.latestReportDate, s.lastSubmittedAt) FROM ReportStatistics s JOIN Employee e"
+            + " ON e.code = s.id.employeeCode WHERE s.id.reportMonth = :month ORDER BY s.reportCount DESC, e.code")
+    List<EmployeeReportStatistics> findByMonth(@Param("month") LocalDate month);
+
+    // 期間内の月ごとの全従業員の件数
+    @Query("SELECT new com.techacademy.repository.MonthlyReportCount(s.id.reportMonth, SUM(s.reportCount))"
+            + " FROM ReportStatistics s WHERE s.id.reportMonth BETWEEN :from AND :to"
+            + " GROUP BY s.id.reportMonth ORDER BY s.id.reportMonth")
+    List<MonthlyReportCount> sumByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+}
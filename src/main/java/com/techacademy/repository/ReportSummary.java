@@ -0,0 +1,7 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 日報一覧表示用の読み取り専用データ(一覧に表示する項目のみをSQLから直接取得し、エンティティとして管理しない)
+public record ReportSummary(Integer id, LocalDate reportDate, String title, String employeeName) {
+}
@@ -0,0 +1,73 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import com.techacademy.entity.Report;
+
+// 日報一覧の読み取り専用検索(内容や登録日時は取得せず、ReportSummaryとして返す)
+public interface ReportSummaryRepository extends Repository<Report, Integer> {
+
+    // 日報一覧の先頭ページ(日付・IDの降順、件数はPageableで指定)
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportSummary> findFirstPage(Pageable pageable);
+
+    // カーソルより後ろ(古い側)のページ
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e"
+            + " WHERE r.reportDate < :reportDate OR (r.reportDate = :reportDate AND r.id < :id)"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportSummary> findPageAfter(@Param("reportDate") LocalDate reportDate, @Param("id") Integer id,
+            Pageable pageable);
+
+    // カーソルより前(新しい側)のページ(昇順で取得するため、呼び出し側で並びを反転する)
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e"
+            + " WHERE r.reportDate > :reportDate OR (r.reportDate = :reportDate AND r.id > :id)"
+            + " ORDER BY r.reportDate ASC, r.id ASC")
+    List<ReportSummary> findPageBefore(@Param("reportDate") LocalDate reportDate, @Param("id") Integer id,
+            Pageable pageable);
+
+    // 特定の社員の日報一覧の先頭ページ
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE e.code = :employeeCode"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportSummary> findFirstPageByEmployeeCode(@Param("employeeCode") String employeeCode, Pageable pageable);
+
+    // 特定の社員のカーソルより後ろ(古い側)のページ
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE e.code = :employeeCode"
+            + " AND (r.reportDate < :reportDate OR (r.reportDate = :reportDate AND r.id < :id))"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportSummary> findPageAfterByEmployeeCode(@Param("employeeCode") String employeeCode,
+            @Param("reportDate") LocalDate reportDate, @Param("id") Integer id, Pageable pageable);
+
+    // 特定の社員のカーソルより前(新しい側)のページ(昇順で取得するため、呼び出し側で並びを反転する)
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE e.code = :employeeCode"
+            + " AND (r.reportDate > :reportDate OR (r.reportDate = :reportDate AND r.id > :id))"
+            + " ORDER BY r.reportDate ASC, r.id ASC")
+    List<ReportSummary> findPageBeforeByEmployeeCode(@Param("employeeCode") String employeeCode,
+            @Param("reportDate") LocalDate reportDate, @Param("id") Integer id, Pageable pageable);
+
+    // 件数を取得
+    @Query("SELECT COUNT(r) FROM Report r")
+    long count();
+
+    // 特定の社員の件数を取得
+    @Query("SELECT COUNT(r) FROM Report r WHERE r.employee.code = :employeeCode")
+    long countByEmployeeCode(@Param("employeeCode") String employeeCode);
+
+    // IDを指定して取得(検索結果の表示用、並び順は呼び出し側で決める)
+    @Query("SELECT new com.techacademy.repository.ReportSummary(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.id IN :ids")
+    List<ReportSummary> findByIdIn(@Param("ids") Collection<Integer> ids);
+
+}
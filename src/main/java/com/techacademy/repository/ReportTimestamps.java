@@ -0,0 +1,7 @@
+package com.techacademy.repository;
+
+import java.time.LocalDateTime;
+
+// 日報と、日報を登録した従業員の更新日時(詳細画面の再表示が必要かどうかの判定用)
+public record ReportTimestamps(LocalDateTime reportUpdatedAt, LocalDateTime employeeUpdatedAt) {
+}
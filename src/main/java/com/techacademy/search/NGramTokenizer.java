@@ -0,0 +1,46 @@
+package com.techacademy.search;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 文字N-gram(2文字ずつ)による分割
+// 日本語は単語の区切りがないため、形態素解析を使わず連続する2文字を1つの語として扱う
+public final class NGramTokenizer {
+
+    // 1語の文字数
+    public static final int N = 2;
+
+    private NGramTokenizer() {
+    }
+
+    // 検索用の正規化(全角英数字・半角カナの統一、英字の小文字化)
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    // 語と出現回数に分割(空白・改行をまたぐ語は作らない)
+    public static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> tokens = new HashMap<String, Integer>();
+        String normalized = normalize(text);
+        int length = normalized.codePointCount(0, normalized.length());
+        int[] codePoints = normalized.codePoints().toArray();
+        for (int i = 0; i + N <= length; i++) {
+            boolean blank = false;
+            for (int j = i; j < i + N; j++) {
+                if (Character.isWhitespace(codePoints[j])) {
+                    blank = true;
+                    break;
+                }
+            }
+            if (!blank) {
+                tokens.merge(new String(codePoints, i, N), 1, Integer::sum);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,90 @@
+package com.techacademy.search;
+
+import java.util.Arrays;
+
+// 1語の出現情報(日報IDの昇順に並べた日報IDと重み付きの出現回数)
+// 1件あたりint2つ分で保持する(日報数×語数の件数になるため、Mapのキー・値のオブジェクトを作らない)
+final class Postings {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] reportIds = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // 出現回数を設定(既にあれば置き換える)
+    void put(int reportId, int count) {
+        // 再構築時は日報IDの昇順に登録されるため、末尾への追加を先に判定する
+        int index = size > 0 && reportIds[size - 1] < reportId ? -(size + 1) : indexOf(reportId);
+        if (index >= 0) {
+            counts[index] = count;
+            return;
+        }
+        int insertion = -(index + 1);
+        if (size == reportIds.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            reportIds = Arrays.copyOf(reportIds, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(reportIds, insertion, reportIds, insertion + 1, size - insertion);
+        System.arraycopy(counts, insertion, counts, insertion + 1, size - insertion);
+        reportIds[insertion] = reportId;
+        counts[insertion] = count;
+        size++;
+    }
+
+    // 出現回数(出現しなければ0)
+    int get(int reportId) {
+        int index = indexOf(reportId);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    void remove(int reportId) {
+        int index = indexOf(reportId);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(reportIds, index + 1, reportIds, index, size - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+        size--;
+    }
+
+    // 昇順に並べた日報IDのいずれかに該当するものをまとめて取り除く
+    void removeAll(int[] sortedReportIds) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (Arrays.binarySearch(sortedReportIds, reportIds[i]) < 0) {
+                reportIds[kept] = reportIds[i];
+                counts[kept] = counts[i];
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    // 余分な領域を解放(再構築の完了時)
+    void trimToSize() {
+        reportIds = Arrays.copyOf(reportIds, size);
+        counts = Arrays.copyOf(counts, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int reportId(int index) {
+        return reportIds[index];
+    }
+
+    int count(int index) {
+        return counts[index];
+    }
+
+    private int indexOf(int reportId) {
+        return Arrays.binarySearch(reportIds, 0, size, reportId);
+    }
+}
@@ -0,0 +1,5 @@
+package com.techacademy.search;
+
+// 検索でヒットした日報のIDとスコア
+public record ReportSearchHit(int reportId, double score) {
+}
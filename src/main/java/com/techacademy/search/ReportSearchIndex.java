@@ -0,0 +1,252 @@
+package com.techacademy.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+// 日報のタイトル・内容の転置インデックス(語 → 日報ID → 出現回数)
+// 本文そのものや日報ごとの語の一覧は保持せず、語と日報の対応(Postings)と日報の社員番号のみをメモリ上に持つ
+// 更新・削除時に取り除く語は、呼び出し元が渡す変更前のタイトル・内容から分割し直して求める
+@Component
+public class ReportSearchIndex {
+
+    // タイトルに出現した語の重み(内容の何回分として数えるか)
+    static final int TITLE_WEIGHT = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 語ごとの出現情報
+    private Map<String, Postings> postings = new HashMap<String, Postings>();
+    // 登録されている日報の社員番号(従業員での絞り込み・一括削除に使用)
+    private Map<Integer, String> employeeCodes = new HashMap<Integer, String>();
+
+    // 再構築中に行われた追加・削除(再構築後に反映する)
+    private List<Runnable> pending;
+
+    // 日報を登録
+    public void index(int reportId, String employeeCode, String title, String content) {
+        Map<String, Integer> terms = terms(title, content);
+
+        lock.writeLock().lock();
+        try {
+            put(reportId, employeeCode, terms);
+            if (pending != null) {
+                pending.add(() -> put(reportId, employeeCode, terms));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 登録済みの日報を更新(previousTitle・previousContentは登録時のタイトル・内容)
+    public void update(int reportId, String employeeCode, String previousTitle, String previousContent, String title,
+            String content) {
+        Map<String, Integer> previousTerms = terms(previousTitle, previousContent);
+        Map<String, Integer> terms = terms(title, content);
+
+        lock.writeLock().lock();
+        try {
+            replace(reportId, employeeCode, previousTerms, terms);
+            if (pending != null) {
+                pending.add(() -> replace(reportId, employeeCode, previousTerms, terms));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 日報を削除(title・contentは登録時のタイトル・内容)
+    public void remove(int reportId, String title, String content) {
+        Map<String, Integer> terms = terms(title, content);
+
+        lock.writeLock().lock();
+        try {
+            delete(reportId, terms);
+            if (pending != null) {
+                pending.add(() -> delete(reportId, terms));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 従業員の日報をまとめて削除(全ての語の出現情報を走査する。従業員の削除時のみのため件数が多くても許容する)
+    public void removeByEmployeeCode(String employeeCode) {
+        lock.writeLock().lock();
+        try {
+            deleteByEmployeeCode(employeeCode);
+            if (pending != null) {
+                pending.add(() -> deleteByEmployeeCode(employeeCode));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 再構築を開始(以降、完了までの追加・削除を記録する)
+    public ReportSearchIndex beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<Runnable>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new ReportSearchIndex();
+    }
+
+    // 再構築したインデックスに置き換え、再構築中の追加・削除を反映する
+    public void completeRebuild(ReportSearchIndex rebuilt) {
+        rebuilt.postings.values().forEach(Postings::trimToSize);
+
+        lock.writeLock().lock();
+        try {
+            postings = rebuilt.postings;
+            employeeCodes = rebuilt.employeeCodes;
+            if (pending != null) {
+                pending.forEach(Runnable::run);
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 検索語を全て含む日報をスコアの高い順に返す(employeeCodeがnullなら全従業員分)
+    // スコアは語ごとの (1 + log(出現回数)) × log(1 + 日報数 / 出現日報数) の合計
+    public List<ReportSearchHit> search(String query, String employeeCode) {
+        List<String> terms = new ArrayList<String>(NGramTokenizer.tokenize(query).keySet());
+        List<ReportSearchHit> hits = new ArrayList<ReportSearchHit>();
+        if (terms.isEmpty()) {
+            return hits;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<Postings>();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    // 含まれない語があれば該当なし
+                    return hits;
+                }
+                lists.add(list);
+            }
+            // 出現する日報が最も少ない語から候補を絞り込む
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            double total = employeeCodes.size();
+            Postings candidates = lists.get(0);
+            for (int i = 0; i < candidates.size(); i++) {
+                int reportId = candidates.reportId(i);
+                if (employeeCode != null && !employeeCode.equals(employeeCodes.get(reportId))) {
+                    continue;
+                }
+                double score = (1 + Math.log(candidates.count(i))) * Math.log(1 + total / candidates.size());
+                for (int j = 1; j < lists.size() && score >= 0; j++) {
+                    Postings list = lists.get(j);
+                    int count = list.get(reportId);
+                    score = count == 0 ? -1 : score + (1 + Math.log(count)) * Math.log(1 + total / list.size());
+                }
+                if (score >= 0) {
+                    hits.add(new ReportSearchHit(reportId, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // スコアの降順(同じスコアなら新しい日報を先に)
+        hits.sort(Comparator.comparingDouble(ReportSearchHit::score).reversed()
+                .thenComparing(Comparator.comparingInt(ReportSearchHit::reportId).reversed()));
+        return hits;
+    }
+
+    // 登録されている日報の件数
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return employeeCodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 登録されている語の種類数
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // タイトル・内容の語ごとの重み付き出現回数
+    private static Map<String, Integer> terms(String title, String content) {
+        Map<String, Integer> terms = new HashMap<String, Integer>();
+        NGramTokenizer.tokenize(title)
+                .forEach((term, count) -> terms.merge(term, count * TITLE_WEIGHT, Integer::sum));
+        NGramTokenizer.tokenize(content).forEach((term, count) -> terms.merge(term, count, Integer::sum));
+        return terms;
+    }
+
+    private void put(int reportId, String employeeCode, Map<String, Integer> terms) {
+        employeeCodes.put(reportId, employeeCode);
+        terms.forEach((term, count) -> postings.computeIfAbsent(term, key -> new Postings()).put(reportId, count));
+    }
+
+    private void replace(int reportId, String employeeCode, Map<String, Integer> previousTerms,
+            Map<String, Integer> terms) {
+        for (String term : previousTerms.keySet()) {
+            if (!terms.containsKey(term)) {
+                removePosting(term, reportId);
+            }
+        }
+        put(reportId, employeeCode, terms);
+    }
+
+    private void delete(int reportId, Map<String, Integer> terms) {
+        if (employeeCodes.remove(reportId) == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            removePosting(term, reportId);
+        }
+    }
+
+    private void removePosting(String term, int reportId) {
+        Postings list = postings.get(term);
+        if (list != null) {
+            list.remove(reportId);
+            if (list.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void deleteByEmployeeCode(String employeeCode) {
+        int[] reportIds = employeeCodes.entrySet().stream().filter(entry -> employeeCode.equals(entry.getValue()))
+                .mapToInt(Map.Entry::getKey).sorted().toArray();
+        if (reportIds.length == 0) {
+            return;
+        }
+        for (int reportId : reportIds) {
+            employeeCodes.remove(reportId);
+        }
+        Iterator<Postings> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings list = iterator.next();
+            list.removeAll(reportIds);
+            if (list.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+}
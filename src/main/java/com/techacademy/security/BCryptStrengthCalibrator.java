@@ -0,0 +1,39 @@
+package com.techacademy.security;
+
+import java.time.Duration;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// BCryptの強度(コスト)を、このサーバーで1回のハッシュ化にかかる時間から決める
+public final class BCryptStrengthCalibrator {
+
+    // 計測用のパスワード
+    private static final String SAMPLE = "calibration1";
+    // 計測回数(最も速い結果を採用する)
+    private static final int RUNS = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    // 最小の強度で計測し、目標時間を超えない範囲で強度を上げる(強度が1上がるごとにハッシュ化の時間は2倍)
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        // JITコンパイル前の計測を避けるため1回空実行
+        probe.encode(SAMPLE);
+
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode(SAMPLE);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        long estimate = fastest;
+        while (strength < maxStrength && estimate * 2 <= target.toNanos()) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,158 @@
+package com.techacademy.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// パスワードのハッシュ化・照合を専用のスレッドプールで実行するPasswordEncoder
+// ログインが集中してもBCryptが使うCPUをスレッド数までに抑え、待ちきれない分は待ち行列の上限で拒否する
+// 拒否・タイムアウトするのはログイン時の照合(matches)のみで、AuthenticationServiceExceptionとしてログイン画面で時間をおいて再度ログインするよう表示する
+// ハッシュ化(encode)は従業員の登録・更新で失敗させないよう、待ち行列が一杯なら呼び出し元のスレッドで実行し、タイムアウトもしない
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+
+    // 待ち行列が一杯で拒否した件数、タイムアウトした件数、待ち行列で待った時間の合計
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = delegate;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Future<String> future = submit(() -> delegate.encode(rawPassword));
+        if (future == null) {
+            return delegate.encode(rawPassword);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Future<Boolean> future = submit(() -> delegate.matches(rawPassword, encodedPassword));
+        if (future == null) {
+            rejected.increment();
+            throw new AuthenticationServiceException("Password hashing queue is full");
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new AuthenticationServiceException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // 保存済みのハッシュの強度が現在の設定より低いか(ハッシュの解析のみのため呼び出し元のスレッドで実行)
+    // ログインが待ち行列で待っている間は再ハッシュを見送り、空いているときのログインで行う
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return executor.getQueue().isEmpty() && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // スレッドプールで実行する(待ち行列が一杯ならnull)
+    private <T> Future<T> submit(Callable<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                queueWaitNanos.add(System.nanoTime() - submitted);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // 待ち行列の件数
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    // 実行中の件数
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    public double getQueueWaitSeconds() {
+        return queueWaitNanos.sum() / 1_000_000_000.0;
+    }
+
+    // ハッシュ化用スレッドの生成(スレッド名で識別できるようにする)
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.techacademy.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.history.ChangeAction;
+import com.techacademy.history.ChangeHistory;
+import com.techacademy.history.ChangeHistoryEntry;
+import com.techacademy.history.ChangeHistoryWriter;
+import com.techacademy.history.ChangeTarget;
+
+// 日報・従業員の変更履歴(変更前・変更後の内容を記録し、日報ごと・従業員ごとに参照する)
+// 記録はコミット後に書き込み待ちのキューに積むのみで、INSERTはChangeHistoryWriterがまとめて行う
+// (書き込みは非同期のため、変更直後は参照結果に含まれないことがある)
+@Service
+public class ChangeHistoryService {
+
+    // 1画面に表示する履歴の件数(新しい順)
+    static final int MAX_HISTORY = 100;
+
+    private static final TypeReference<LinkedHashMap<String, Object>> SNAPSHOT_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {
+            };
+
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ChangeHistoryService(ChangeHistoryWriter changeHistoryWriter, JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper) {
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // 日報の内容(履歴に記録する項目)
+    public Map<String, Object> reportSnapshot(Report report) {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("reportDate", String.valueOf(report.getReportDate()));
+        snapshot.put("title", report.getTitle());
+        snapshot.put("content", report.getContent());
+        snapshot.put("employeeCode", report.getEmployee().getCode());
+        snapshot.put("version", report.getVersion());
+        return snapshot;
+    }
+
+    // 更新前の日報の内容をDBから取得(日報がなければnull)
+    public Map<String, Object> reportSnapshot(Integer id) {
+        List<Map<String, Object>> rows = jdbcTemplate.query(
+                "SELECT report_date, title, content, employee_code, version FROM reports"
+                        + " WHERE id = ? AND delete_flg = 0",
+                (rs, rowNum) -> {
+                    Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+                    snapshot.put("reportDate", String.valueOf(rs.getDate(1).toLocalDate()));
+                    snapshot.put("title", rs.getString(2));
+                    snapshot.put("content", rs.getString(3));
+                    snapshot.put("employeeCode", rs.getString(4));
+                    snapshot.put("version", rs.getInt(5));
+                    return snapshot;
+                }, id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // 従業員の内容(パスワードは記録しない)
+    public Map<String, Object> employeeSnapshot(Employee employee) {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("name", employee.getName());
+        snapshot.put("role", employee.getRole() == null ? null : employee.getRole().name());
+        snapshot.put("version", employee.getVersion());
+        return snapshot;
+    }
+
+    // 更新前の従業員の内容をDBから取得(従業員がいなければnull)
+    public Map<String, Object> employeeSnapshot(String code) {
+        List<Map<String, Object>> rows = jdbcTemplate.query(
+                "SELECT name, role, version FROM employees WHERE code = ? AND delete_flg = 0", (rs, rowNum) -> {
+                    Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+                    snapshot.put("name", rs.getString(1));
+                    snapshot.put("role", rs.getString(2));
+                    snapshot.put("version", rs.getInt(3));
+                    return snapshot;
+                }, code);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // 日報の変更を記録(コミット後)
+    public void recordReport(ChangeAction action, Integer id, Map<String, Object> before,
+            Map<String, Object> after) {
+        record(ChangeTarget.REPORT, String.valueOf(id), action, before, after);
+    }
+
+    // 従業員の変更を記録(コミット後)
+    public void recordEmployee(ChangeAction action, String code, Map<String, Object> before,
+            Map<String, Object> after) {
+        record(ChangeTarget.EMPLOYEE, code, action, before, after);
+    }
+
+    // 日報の変更履歴(新しい順)
+    public List<ChangeHistory> findByReport(Integer id) {
+        return find(ChangeTarget.REPORT, id);
+    }
+
+    // 従業員の変更履歴(新しい順)
+    public List<ChangeHistory> findByEmployee(String code) {
+        return find(ChangeTarget.EMPLOYEE, code);
+    }
+
+    private void record(ChangeTarget target, String key, ChangeAction action, Map<String, Object> before,
+            Map<String, Object> after) {
+        ChangeHistoryEntry entry = new ChangeHistoryEntry(target, key, action, currentUser(), LocalDateTime.now(),
+                toJson(before), toJson(after));
+        // ロールバックされた変更は記録しない
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changeHistoryWriter.submit(entry);
+                }
+            });
+        } else {
+            changeHistoryWriter.submit(entry);
+        }
+    }
+
+    private List<ChangeHistory> find(ChangeTarget target, Object key) {
+        return jdbcTemplate.query("SELECT id, action, changed_by, changed_at, before_data, after_data FROM "
+                + target.getTable() + " WHERE " + target.getKeyColumn() + " = ? ORDER BY id DESC LIMIT ?",
+                (rs, rowNum) -> new ChangeHistory(rs.getLong(1), ChangeAction.valueOf(rs.getString(2)),
+                        rs.getString(3), rs.getTimestamp(4).toLocalDateTime(), fromJson(rs.getString(5)),
+                        fromJson(rs.getString(6))),
+                key, MAX_HISTORY);
+    }
+
+    // 変更したユーザーの社員番号(ログインしていなければnull)
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private String toJson(Map<String, Object> snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(json, SNAPSHOT_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
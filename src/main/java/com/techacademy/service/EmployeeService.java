@@ -2,6 +2,7 @@ package com.techacademy.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -11,22 +12,32 @@ import org.springframework.stereotype.Service;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
-import com.techacademy.entity.Report;
+import com.techacademy.history.ChangeAction;
 import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.web.FragmentRenderCache;
 
 import org.springframework.transaction.annotation.Transactional;
 
+// 読み取り専用のメソッドは、レプリカが設定されていればレプリカで実行される(DataSourceConfig)
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
     private final ReportService reportService;
+    private final UserDetailCache userDetailCache;
+    private final ChangeHistoryService changeHistoryService;
+    private final FragmentRenderCache fragmentRenderCache;
 
-    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder, ReportService reportService) {
+    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder,
+            ReportService reportService, UserDetailCache userDetailCache, ChangeHistoryService changeHistoryService,
+            FragmentRenderCache fragmentRenderCache) {
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
         this.reportService = reportService;
+        this.userDetailCache = userDetailCache;
+        this.changeHistoryService = changeHistoryService;
+        this.fragmentRenderCache = fragmentRenderCache;
     }
 
     // 従業員保存
@@ -51,25 +62,33 @@ public class EmployeeService {
         employee.setUpdatedAt(now);
 
         employeeRepository.save(employee);
+        // 認証用のキャッシュから削除
+        userDetailCache.evict(employee.getCode());
+        // 氏名・権限を含む画面の共通部分のキャッシュを削除
+        fragmentRenderCache.clear();
+        // 変更履歴に記録(コミット後)
+        changeHistoryService.recordEmployee(ChangeAction.CREATE, employee.getCode(), null,
+                changeHistoryService.employeeSnapshot(employee));
         return ErrorKinds.SUCCESS;
     }
 
     // 従業員更新
+    // 画面を開いた時点のバージョンのままであれば、更新前に取得せず1回のUPDATEで更新する
     @Transactional
     public ErrorKinds update(String code, Employee employee) {
 
-        // findByCodeでDBから一件検索した結果をoriginalEmployeeに代入
-        Employee originalEmployee = findByCode(code);
-        // 作成日時をemployeeに設定（更新画面作成時のgetCreatedAtのnullエラー防止のため)
-        employee.setCreatedAt(originalEmployee.getCreatedAt());
-        // 削除フラグをemployeeに設定（null防止、boolean型のためgetではなくis)
-        employee.setDeleteFlg(originalEmployee.isDeleteFlg());
+        // 現在日時を取得し、nowに代入
+        LocalDateTime now = LocalDateTime.now();
+        int updated;
+        // 変更履歴に記録する更新前の内容
+        Map<String, Object> before = changeHistoryService.employeeSnapshot(code);
 
         // パスワードが空文字" "かどうかをチェック、getPassword()はemployeeエンティティの@Dataで生成
         if ("".equals(employee.getPassword())) {
 
-            // パスワードが空だった場合、 DBに設定済みの値を設定する(originalEmployeeの中からパスワードを取得し、employeeに設定)
-            employee.setPassword(originalEmployee.getPassword());
+            // パスワードが空だった場合、DBに設定済みのパスワードは変更しない
+            updated = employeeRepository.updateVersioned(code, employee.getVersion(), employee.getName(),
+                    employee.getRole(), now);
 
             // パスワードが空でない場合は画面入力値が暗号化された値を設定
         } else {
@@ -80,15 +99,26 @@ public class EmployeeService {
             if (ErrorKinds.CHECK_OK != result) {
                 return result;
             }
+            updated = employeeRepository.updateVersionedWithPassword(code, employee.getVersion(), employee.getName(),
+                    employee.getRole(), employee.getPassword(), now);
+        }
+
+        // 他のユーザーが先に更新・削除していれば0件
+        if (updated == 0) {
+            return ErrorKinds.OPTIMISTIC_LOCK_ERROR;
         }
 
-        // 現在日時を取得し、nowに代入
-        LocalDateTime now = LocalDateTime.now();
         // 更新日時（設定値：現在日時）をemployeeに設定
         employee.setUpdatedAt(now);
-
-        // リポジトリのsaveメソッドを呼び出し、データベースに保存
-        employeeRepository.save(employee);
+        employee.setVersion(employee.getVersion() + 1);
+        // 権限などの変更をすぐに反映させるため、認証用のキャッシュから削除
+        userDetailCache.evict(code);
+        // 氏名・権限を含む画面の共通部分のキャッシュを削除
+        fragmentRenderCache.clear();
+        // 変更履歴に記録(コミット後、パスワードは変更の有無のみ)
+        Map<String, Object> after = changeHistoryService.employeeSnapshot(employee);
+        after.put("passwordChanged", !"".equals(employee.getPassword()));
+        changeHistoryService.recordEmployee(ChangeAction.UPDATE, code, before, after);
 
         // ErrorKindsの列挙子がSUCCESSであることをコントローラに戻す
         return ErrorKinds.SUCCESS;
@@ -99,36 +129,38 @@ public class EmployeeService {
     public ErrorKinds delete(String code, UserDetail userDetail) {
 
         // 自分を削除しようとした場合はエラーメッセージを表示
-        if (code.equals(userDetail.getEmployee().getCode())) {
+        if (code.equals(userDetail.getCode())) {
             return ErrorKinds.LOGINCHECK_ERROR;
         }
 
         Employee employee = findByCode(code);
+        // 変更履歴に記録(コミット後)
+        changeHistoryService.recordEmployee(ChangeAction.DELETE, code, changeHistoryService.employeeSnapshot(employee),
+                null);
         LocalDateTime now = LocalDateTime.now();
         employee.setUpdatedAt(now);
         // 論理削除セット
         employee.setDeleteFlg(true);
 
-
-        // 削除対象の従業員（employee）に紐づいている、日報のリスト（reportList）を取得
-        List<Report> reportList = reportService.findByEmployee(employee);
-        // 日報のリスト（reportList）を拡張for文を使って繰り返し
-        for (Report report : reportList) {
-            // 日報（report）のIDを指定して、日報情報を削除
-            reportService.delete(report.getId());
-        }
-
-
+        // 削除対象の従業員に紐づいている日報を、1回のUPDATEでまとめて論理削除
+        // (従業員の論理削除はUPDATE実行前にDBへ反映される)
+        reportService.deleteByEmployeeCode(code);
+        // 削除した従業員がログインできないよう、認証用のキャッシュから削除
+        userDetailCache.evict(code);
+        // 氏名・権限を含む画面の共通部分のキャッシュを削除
+        fragmentRenderCache.clear();
 
         return ErrorKinds.SUCCESS;
     }
 
     // 従業員一覧表示処理
+    @Transactional(readOnly = true)
     public List<Employee> findAll() {
         return employeeRepository.findAll();
     }
 
     // 1件を検索
+    @Transactional(readOnly = true)
     public Employee findByCode(String code) {
         // findByIdで検索
         Optional<Employee> option = employeeRepository.findById(code);
@@ -137,6 +169,17 @@ public class EmployeeService {
         return employee;
     }
 
+    // 更新用の参照を取得(従業員をDBから取得せず、日報の登録などで外部キーとしてのみ使う)
+    public Employee getReference(String code) {
+        return employeeRepository.getReferenceById(code);
+    }
+
+    // 更新日時のみを取得(従業員がいなければnull)
+    @Transactional(readOnly = true)
+    public LocalDateTime findUpdatedAt(String code) {
+        return employeeRepository.findUpdatedAtByCode(code).orElse(null);
+    }
+
     // 従業員パスワードチェック
     private ErrorKinds employeePasswordCheck(Employee employee) {
 
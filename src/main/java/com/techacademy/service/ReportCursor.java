@@ -0,0 +1,37 @@
+package com.techacademy.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// 日報一覧のキーセットページネーション用カーソル(日付とIDの組で一覧上の位置を表す)
+public record ReportCursor(LocalDate reportDate, Integer id) {
+
+    // 区切り文字(日付"yyyy-MM-dd"とIDの間)
+    private static final String SEPARATOR = "_";
+
+    // リクエストパラメータの文字列からカーソルを生成(不正な値の場合はnullを返す)
+    public static ReportCursor parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        int index = value.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            return null;
+        }
+
+        try {
+            LocalDate reportDate = LocalDate.parse(value.substring(0, index));
+            Integer id = Integer.valueOf(value.substring(index + 1));
+            return new ReportCursor(reportDate, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // リクエストパラメータに埋め込む文字列に変換
+    @Override
+    public String toString() {
+        return reportDate + SEPARATOR + id;
+    }
+}
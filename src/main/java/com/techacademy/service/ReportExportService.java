@@ -0,0 +1,108 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.techacademy.datasource.StreamingReadPool;
+
+// 日報のCSV出力
+// 検索結果をJDBCのカーソルで一定件数ずつ読みながら書き出し、全件をメモリに保持しない
+// 書き出しが終わるまで接続を1つ使い続けるため、画面の処理とは別の接続プール(StreamingReadPool)を使い、
+// 同時に出力できる件数はその接続数(app.streaming-read.pool-size)が上限になる
+@Service
+public class ReportExportService {
+
+    // Excelで文字化けしないよう先頭に付けるBOM
+    private static final char BOM = '\uFEFF';
+    // CSVの見出し行
+    private static final String HEADER = "ID,日付,社員番号,氏名,タイトル,内容,登録日時,更新日時";
+
+    private static final String SELECT = "SELECT r.id, r.report_date, e.code, e.name, r.title, r.content,"
+            + " r.created_at, r.updated_at FROM reports r JOIN employees e ON e.code = r.employee_code"
+            + " WHERE r.delete_flg = 0 AND r.report_date BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ReportExportService(StreamingReadPool streamingReadPool,
+            @Value("${app.report-export.fetch-size:500}") int fetchSize) {
+        // 出力専用のJdbcTemplate(一度に読み込む件数を固定する)
+        this.jdbcTemplate = streamingReadPool.jdbcTemplate(fetchSize);
+    }
+
+    // 接続先を指定して作成(テスト用)
+    ReportExportService(DataSource dataSource, int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    // 期間内(fromからtoまで)の日報をBOM付きのCSVで書き出す(employeeCodeがnullなら全従業員分)
+    public void export(LocalDate from, LocalDate to, String employeeCode, Writer writer) {
+        List<Object> args = new ArrayList<Object>();
+        args.add(from);
+        args.add(to);
+        String sql = SELECT;
+        if (employeeCode != null) {
+            sql += " AND r.employee_code = ?";
+            args.add(employeeCode);
+        }
+        sql += " ORDER BY r.report_date, r.id";
+
+        try {
+            writer.write(BOM);
+            writer.write(HEADER);
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // 1行ずつ書き出す(書き出し先が大きくなってもメモリ上には1行分のみ)
+        jdbcTemplate.query(sql, (ResultSet rs) -> writeRow(rs, writer), args.toArray());
+    }
+
+    private void writeRow(ResultSet rs, Writer writer) throws SQLException {
+        try {
+            writer.write(Integer.toString(rs.getInt(1)));
+            for (int column = 2; column <= 8; column++) {
+                writer.write(',');
+                writeField(rs.getString(column), writer);
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // カンマ・ダブルクォート・改行を含む値はダブルクォートで囲む(ダブルクォートは2つ重ねる)
+    // =、+、-、@で始まる値は表計算ソフトで数式として実行されないよう先頭に'を付ける
+    private void writeField(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
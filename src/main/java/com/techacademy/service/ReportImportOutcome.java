@@ -0,0 +1,22 @@
+package com.techacademy.service;
+
+import java.time.LocalDate;
+
+// 一括登録の1行ごとの結果
+public record ReportImportOutcome(int line, LocalDate reportDate, String title, Status status, String message) {
+
+    // 登録結果の種類
+    public static enum Status {
+        IMPORTED("登録"), INVALID("入力エラー"), DUPLICATE("日付重複");
+
+        private String name;
+
+        private Status(String name) {
+            this.name = name;
+        }
+
+        public String getValue() {
+            return this.name;
+        }
+    }
+}
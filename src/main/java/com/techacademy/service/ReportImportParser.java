@@ -0,0 +1,159 @@
+package com.techacademy.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// 一括登録するファイル(CSVまたはJSON)の読み込み
+// CSVは1行目が見出し(日付,タイトル,内容 またはreportDate,title,content。CSV出力の形式もそのまま読み込める)
+// JSONは{"reportDate":"yyyy-MM-dd","title":"...","content":"..."}の配列
+@Component
+public class ReportImportParser {
+
+    // 1回に登録できる件数の上限
+    public static final int MAX_ROWS = 1000;
+
+    private static final String[][] COLUMNS = { { "日付", "reportdate" }, { "タイトル", "title" }, { "内容", "content" } };
+
+    private final ObjectMapper objectMapper;
+
+    public ReportImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // CSVを読み込む(ダブルクォートで囲まれた値はカンマ・改行を含められる)
+    public List<ReportImportRow> parseCsv(Reader reader) throws IOException {
+        List<List<String>> records = readCsv(reader);
+        if (records.isEmpty()) {
+            return new ArrayList<ReportImportRow>();
+        }
+
+        // 見出しから各項目の列番号を決める
+        List<String> header = records.get(0);
+        int[] index = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            index[i] = -1;
+            for (int column = 0; column < header.size(); column++) {
+                String name = header.get(column).strip().replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+                if (name.equals(COLUMNS[i][0]) || name.equals(COLUMNS[i][1])) {
+                    index[i] = column;
+                }
+            }
+            if (index[i] < 0) {
+                throw new IllegalArgumentException("CSVの見出しに「" + COLUMNS[i][0] + "」がありません");
+            }
+        }
+
+        List<ReportImportRow> rows = new ArrayList<ReportImportRow>();
+        for (int i = 1; i < records.size(); i++) {
+            List<String> record = records.get(i);
+            // 空行は読み飛ばす
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            checkSize(rows);
+            rows.add(new ReportImportRow(i + 1, value(record, index[0]), value(record, index[1]),
+                    value(record, index[2])));
+        }
+        return rows;
+    }
+
+    // JSONを読み込む
+    public List<ReportImportRow> parseJson(InputStream in) throws IOException {
+        JsonNode root = objectMapper.readTree(in);
+        if (root == null || !root.isArray()) {
+            throw new IllegalArgumentException("JSONは日報の配列で指定してください");
+        }
+        List<ReportImportRow> rows = new ArrayList<ReportImportRow>();
+        int line = 0;
+        for (JsonNode node : root) {
+            checkSize(rows);
+            line++;
+            rows.add(new ReportImportRow(line, text(node, "reportDate"), text(node, "title"), text(node, "content")));
+        }
+        return rows;
+    }
+
+    private void checkSize(List<ReportImportRow> rows) {
+        if (rows.size() >= MAX_ROWS) {
+            throw new IllegalArgumentException("一度に登録できるのは" + MAX_ROWS + "件までです");
+        }
+    }
+
+    // CSVの値(CSV出力で数式とみなされないよう付けた先頭の'は取り除く)
+    private String value(List<String> record, int index) {
+        if (index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index);
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // CSVをレコード(値のリスト)の一覧に分割
+    private List<List<String>> readCsv(Reader source) throws IOException {
+        // 閉じるダブルクォートの判定で1文字先読みするため、バッファ付きで読む
+        Reader reader = source.markSupported() ? source : new BufferedReader(source);
+        List<List<String>> records = new ArrayList<List<String>>();
+        List<String> record = new ArrayList<String>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                // 値の中の改行はLFに揃える
+                if (c == '\r') {
+                    continue;
+                }
+                if (c != '"') {
+                    value.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                int next = reader.read();
+                if (next == '"') {
+                    // ダブルクォート2つは1つのダブルクォート
+                    value.append('"');
+                } else {
+                    quoted = false;
+                    if (next != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                record.add(value.toString());
+                value.setLength(0);
+                records.add(record);
+                record = new ArrayList<String>();
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+        }
+        if (value.length() > 0 || !record.isEmpty()) {
+            record.add(value.toString());
+            records.add(record);
+        }
+        return records;
+    }
+}
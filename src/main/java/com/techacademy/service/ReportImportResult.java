@@ -0,0 +1,23 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.service.ReportImportOutcome.Status;
+
+// 一括登録の結果(ファイルの行順)
+public record ReportImportResult(List<ReportImportOutcome> outcomes) {
+
+    // 登録できた件数
+    public long importedCount() {
+        return count(Status.IMPORTED);
+    }
+
+    // 登録できなかった件数
+    public long rejectedCount() {
+        return outcomes.size() - importedCount();
+    }
+
+    private long count(Status status) {
+        return outcomes.stream().filter(outcome -> outcome.status() == status).count();
+    }
+}
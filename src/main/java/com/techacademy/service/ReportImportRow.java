@@ -0,0 +1,5 @@
+package com.techacademy.service;
+
+// 一括登録するファイルの1行分(入力チェック前の値、lineはファイル上の行番号(JSONの場合は要素の番号))
+public record ReportImportRow(int line, String reportDate, String title, String content) {
+}
@@ -0,0 +1,203 @@
+package com.techacademy.service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.history.ChangeAction;
+import com.techacademy.repository.ReportRepository;
+import com.techacademy.service.ReportImportOutcome.Status;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// 日報の一括登録
+// 入力チェックはメモリ上で行い、重複チェックは1回のSQL、登録はJDBCのバッチで行う(1件ずつsaveしない)
+@Service
+public class ReportImportService {
+
+    // 1回のバッチで送信する件数
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT = "INSERT INTO reports(report_date,title,content,employee_code,delete_flg,"
+            + "created_at,updated_at) VALUES (?,?,?,?,0,?,?)";
+
+    // 日付の形式(yyyy-MM-dd、yyyy/MM/dd)
+    private static final DateTimeFormatter[] DATE_FORMATS = { DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("uuuu/M/d") };
+
+    private final ReportRepository reportRepository;
+    private final ReportSearchService reportSearchService;
+    private final ReportStatisticsService reportStatisticsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ChangeHistoryService changeHistoryService;
+
+    public ReportImportService(ReportRepository reportRepository, ReportSearchService reportSearchService,
+            ReportStatisticsService reportStatisticsService, JdbcTemplate jdbcTemplate, Validator validator,
+            ChangeHistoryService changeHistoryService) {
+        this.reportRepository = reportRepository;
+        this.reportSearchService = reportSearchService;
+        this.reportStatisticsService = reportStatisticsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.changeHistoryService = changeHistoryService;
+    }
+
+    // ログイン中の従業員の日報としてまとめて登録し、行ごとの結果を返す
+    // 同時に同じ日付の日報が登録された場合はDBの一意制約違反(DataIntegrityViolationException)となり、全件登録されない
+    @Transactional
+    public ReportImportResult importReports(Employee employee, List<ReportImportRow> rows) {
+
+        // 行ごとの結果(ファイルの行順)と、入力チェックを通過した日報(行の位置 → 日報)
+        ReportImportOutcome[] outcomes = new ReportImportOutcome[rows.size()];
+        Map<Integer, Report> valid = new LinkedHashMap<Integer, Report>();
+
+        // 入力チェック(画面からの登録と同じエンティティの入力チェック)とファイル内の日付の重複チェック
+        Set<LocalDate> dates = new HashSet<LocalDate>();
+        for (int i = 0; i < rows.size(); i++) {
+            ReportImportRow row = rows.get(i);
+            LocalDate reportDate = parseDate(row.reportDate());
+            Report report = new Report();
+            report.setReportDate(reportDate);
+            report.setTitle(row.title());
+            report.setContent(row.content());
+            report.setEmployee(employee);
+
+            String message = validate(row, report);
+            if (message != null) {
+                outcomes[i] = new ReportImportOutcome(row.line(), reportDate, row.title(), Status.INVALID, message);
+            } else if (!dates.add(reportDate)) {
+                outcomes[i] = new ReportImportOutcome(row.line(), reportDate, row.title(), Status.DUPLICATE,
+                        "ファイル内で日付が重複しています");
+            } else {
+                valid.put(i, report);
+            }
+        }
+
+        // 登録済みの日報との重複チェック(1回のSQL)
+        Set<LocalDate> existing = dates.isEmpty() ? Set.of()
+                : new HashSet<LocalDate>(reportRepository.findReportDates(employee.getCode(), dates));
+        List<Report> reports = new ArrayList<Report>();
+        for (Map.Entry<Integer, Report> entry : valid.entrySet()) {
+            ReportImportRow row = rows.get(entry.getKey());
+            Report report = entry.getValue();
+            if (existing.contains(report.getReportDate())) {
+                outcomes[entry.getKey()] = new ReportImportOutcome(row.line(), report.getReportDate(), row.title(),
+                        Status.DUPLICATE, "既に登録されている日付です");
+            } else {
+                reports.add(report);
+                outcomes[entry.getKey()] = new ReportImportOutcome(row.line(), report.getReportDate(), row.title(),
+                        Status.IMPORTED, null);
+            }
+        }
+
+        insert(reports);
+        // 登録した日報の月の集計を更新
+        reportStatisticsService.refresh(employee.getCode(),
+                reports.stream().map(Report::getReportDate).collect(Collectors.toList()));
+        return new ReportImportResult(List.of(outcomes));
+    }
+
+    // JDBCのバッチで登録し、採番されたIDを日報にセットして検索用インデックス・変更履歴に登録
+    private void insert(List<Report> reports) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (int from = 0; from < reports.size(); from += BATCH_SIZE) {
+            List<Report> batch = reports.subList(from, Math.min(from + BATCH_SIZE, reports.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Report report = batch.get(i);
+                            ps.setDate(1, Date.valueOf(report.getReportDate()));
+                            ps.setString(2, report.getTitle());
+                            ps.setString(3, report.getContent());
+                            ps.setString(4, report.getEmployee().getCode());
+                            ps.setTimestamp(5, timestamp);
+                            ps.setTimestamp(6, timestamp);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size() && i < keys.size(); i++) {
+                Report report = batch.get(i);
+                report.setId(((Number) keys.get(i).values().iterator().next()).intValue());
+                report.setCreatedAt(now);
+                report.setUpdatedAt(now);
+                report.setVersion(0);
+                reportSearchService.indexAfterCommit(report);
+                changeHistoryService.recordReport(ChangeAction.CREATE, report.getId(), null,
+                        changeHistoryService.reportSnapshot(report));
+            }
+        }
+    }
+
+    // 入力チェック(エラーがなければnull)
+    private String validate(ReportImportRow row, Report report) {
+        if (report.getReportDate() == null && row.reportDate() != null && !row.reportDate().isBlank()) {
+            return "日付の形式が正しくありません";
+        }
+        Set<ConstraintViolation<Report>> violations = validator.validate(report);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(violation -> label(violation.getPropertyPath().toString()) + ": "
+                + violation.getMessage()).sorted().collect(Collectors.joining(" / "));
+    }
+
+    private String label(String property) {
+        switch (property) {
+        case "reportDate":
+            return "日付";
+        case "title":
+            return "タイトル";
+        case "content":
+            return "内容";
+        default:
+            return property;
+        }
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value.strip(), format);
+            } catch (DateTimeParseException e) {
+                // 次の形式で試す
+            }
+        }
+        return null;
+    }
+}
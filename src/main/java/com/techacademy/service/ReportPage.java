@@ -0,0 +1,19 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.repository.ReportSummary;
+
+// 日報一覧の1ページ分(表示する日報と前後のページへのカーソル、前後のページがなければカーソルはnull)
+public record ReportPage(List<ReportSummary> content, ReportCursor next, ReportCursor previous) {
+
+    // 1ページの表示件数(指定がない場合)
+    public static final int DEFAULT_SIZE = 20;
+    // 1ページの表示件数の上限
+    public static final int MAX_SIZE = 100;
+
+    // 指定された表示件数を1～上限の範囲に丸める
+    public static int normalizeSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
@@ -0,0 +1,20 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.repository.ReportSummary;
+
+// 日報検索結果の1ページ分(スコア順の日報、該当件数、ページ番号(0始まり))
+public record ReportSearchPage(List<ReportSummary> content, int total, int page, int size) {
+
+    // 検索語の最小文字数(N-gramの文字数未満では検索できない)
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        return ((long) page + 1) * size < total;
+    }
+}
@@ -0,0 +1,132 @@
+package com.techacademy.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techacademy.datasource.StreamingReadPool;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportSummary;
+import com.techacademy.repository.ReportSummaryRepository;
+import com.techacademy.search.NGramTokenizer;
+import com.techacademy.search.ReportSearchHit;
+import com.techacademy.search.ReportSearchIndex;
+
+// 日報のキーワード検索(タイトル・内容の転置インデックスを使用し、LIKE検索を行わない)
+@Service
+public class ReportSearchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportSearchService.class);
+
+    private final ReportSearchIndex reportSearchIndex;
+    private final ReportSummaryRepository reportSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReportSearchService(ReportSearchIndex reportSearchIndex, ReportSummaryRepository reportSummaryRepository,
+            StreamingReadPool streamingReadPool, @Value("${app.report-export.fetch-size:500}") int fetchSize) {
+        this.reportSearchIndex = reportSearchIndex;
+        this.reportSummaryRepository = reportSummaryRepository;
+        // 再構築専用のJdbcTemplate(全件を一定件数ずつ読み込む)
+        this.jdbcTemplate = streamingReadPool.jdbcTemplate(fetchSize);
+    }
+
+    // 起動時にDBの日報からインデックスを作成(日報IDの昇順に読み込み、語ごとの出現情報の末尾に追加していく)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        ReportSearchIndex rebuilt = reportSearchIndex.beginRebuild();
+        jdbcTemplate.query("SELECT id, employee_code, title, content FROM reports WHERE delete_flg = 0 ORDER BY id",
+                rs -> {
+                    rebuilt.index(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                });
+        reportSearchIndex.completeRebuild(rebuilt);
+        LOGGER.info("Report search index rebuilt: {} reports, {} terms in {} ms", reportSearchIndex.size(),
+                reportSearchIndex.termCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // キーワードで検索し、指定ページの日報を返す(employeeCodeがnullなら全従業員分)
+    public ReportSearchPage search(String query, String employeeCode, int page, int size) {
+        // 検索語が短すぎる場合は該当なし
+        List<ReportSearchHit> hits = Collections.emptyList();
+        if (NGramTokenizer.normalize(query).strip().length() >= ReportSearchPage.MIN_QUERY_LENGTH) {
+            hits = reportSearchIndex.search(query, employeeCode);
+        }
+
+        // ページ番号が大きい場合にintの範囲を超えないよう、longで計算する
+        int from = (int) Math.min((long) page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Integer> ids = new ArrayList<Integer>();
+        for (ReportSearchHit hit : hits.subList(from, to)) {
+            ids.add(hit.reportId());
+        }
+
+        // 表示する分の日報のみをDBから取得し、スコア順に並べ直す
+        List<ReportSummary> content = new ArrayList<ReportSummary>();
+        if (!ids.isEmpty()) {
+            Map<Integer, ReportSummary> summaries = new HashMap<Integer, ReportSummary>();
+            for (ReportSummary summary : reportSummaryRepository.findByIdIn(ids)) {
+                summaries.put(summary.id(), summary);
+            }
+            for (Integer id : ids) {
+                ReportSummary summary = summaries.get(id);
+                if (summary != null) {
+                    content.add(summary);
+                }
+            }
+        }
+        return new ReportSearchPage(content, hits.size(), page, size);
+    }
+
+    // 日報の登録をコミット後にインデックスへ反映(ロールバックされた変更は反映しない)
+    public void indexAfterCommit(Report report) {
+        int id = report.getId();
+        String employeeCode = report.getEmployee().getCode();
+        String title = report.getTitle();
+        String content = report.getContent();
+        afterCommit(() -> reportSearchIndex.index(id, employeeCode, title, content));
+    }
+
+    // 日報の更新をコミット後にインデックスへ反映(previousTitle・previousContentはDBから取得した更新前の値)
+    public void updateAfterCommit(Report report, String previousTitle, String previousContent) {
+        int id = report.getId();
+        String employeeCode = report.getEmployee().getCode();
+        String title = report.getTitle();
+        String content = report.getContent();
+        afterCommit(() -> reportSearchIndex.update(id, employeeCode, previousTitle, previousContent, title, content));
+    }
+
+    // 日報の削除をコミット後にインデックスへ反映(title・contentは削除前の値)
+    public void removeAfterCommit(int reportId, String title, String content) {
+        afterCommit(() -> reportSearchIndex.remove(reportId, title, content));
+    }
+
+    // 従業員の日報の一括削除をコミット後にインデックスへ反映
+    public void removeByEmployeeCodeAfterCommit(String employeeCode) {
+        afterCommit(() -> reportSearchIndex.removeByEmployeeCode(employeeCode));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -2,55 +2,121 @@ package com.techacademy.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
+import com.techacademy.history.ChangeAction;
 import com.techacademy.repository.ReportRepository;
+import com.techacademy.repository.ReportSummary;
+import com.techacademy.repository.ReportSummaryRepository;
+import com.techacademy.repository.ReportTimestamps;
 
+// 読み取り専用のメソッドは、レプリカが設定されていればレプリカで実行される(DataSourceConfig)
 @Service
 public class ReportService {
     private final ReportRepository reportRepository;
-
-    public ReportService(ReportRepository reportRepository) {
+    private final ReportSummaryRepository reportSummaryRepository;
+    private final ReportSearchService reportSearchService;
+    private final ReportStatisticsService reportStatisticsService;
+    private final ChangeHistoryService changeHistoryService;
+
+    public ReportService(ReportRepository reportRepository, ReportSummaryRepository reportSummaryRepository,
+            ReportSearchService reportSearchService, ReportStatisticsService reportStatisticsService,
+            ChangeHistoryService changeHistoryService) {
         this.reportRepository = reportRepository;
+        this.reportSummaryRepository = reportSummaryRepository;
+        this.reportSearchService = reportSearchService;
+        this.reportStatisticsService = reportStatisticsService;
+        this.changeHistoryService = changeHistoryService;
     }
 
     // 全社員の日報一覧表示(管理者ユーザ用)
+    @Transactional(readOnly = true)
     public List<Report> findAll() {
         return reportRepository.findAll();
     }
 
     // 社員番号で検索して特定の社員の日報を取得(一般ユーザ用)
+    @Transactional(readOnly = true)
     public List<Report> findByEmployee(Employee employee) {
         return reportRepository.findByEmployee(employee);
     }
 
-    // 日報保存
-    @Transactional
-    public ErrorKinds save(Report report) {
+    // 日報一覧の1ページ分を取得(employeeCodeがnullなら全社員分(管理者ユーザ用)、afterとbeforeがどちらもnullなら先頭ページ)
+    // 一覧に表示する項目のみを読み取り専用データとして取得する(エンティティの取得は詳細・更新画面のみ)
+    @Transactional(readOnly = true)
+    public ReportPage findPage(String employeeCode, ReportCursor after, ReportCursor before, int size) {
+
+        // 次のページの有無を判定するため、1件多く取得する(件数のカウントは行わない)
+        Pageable pageable = PageRequest.of(0, size + 1);
+        // 前のページに戻る場合はカーソルより新しい日報を昇順で取得する
+        boolean backward = before != null;
+
+        List<ReportSummary> reportList;
+        if (backward) {
+            reportList = employeeCode == null
+                    ? reportSummaryRepository.findPageBefore(before.reportDate(), before.id(), pageable)
+                    : reportSummaryRepository.findPageBeforeByEmployeeCode(employeeCode, before.reportDate(),
+                            before.id(), pageable);
+        } else if (after != null) {
+            reportList = employeeCode == null
+                    ? reportSummaryRepository.findPageAfter(after.reportDate(), after.id(), pageable)
+                    : reportSummaryRepository.findPageAfterByEmployeeCode(employeeCode, after.reportDate(),
+                            after.id(), pageable);
+        } else {
+            reportList = employeeCode == null
+                    ? reportSummaryRepository.findFirstPage(pageable)
+                    : reportSummaryRepository.findFirstPageByEmployeeCode(employeeCode, pageable);
+        }
 
-        // 新規登録画面にログイン中の社員番号を特定
-        Employee employee = report.getEmployee();
-        // 入力した日付を特定
-        LocalDate reportDate = report.getReportDate();
+        // 1件多く取得できていれば、取得方向の先にまだ日報がある
+        boolean hasMore = reportList.size() > size;
+        List<ReportSummary> content = new ArrayList<ReportSummary>(hasMore ? reportList.subList(0, size) : reportList);
+        if (backward) {
+            // 一覧の並び(日付・IDの降順)に戻す
+            Collections.reverse(content);
+        }
 
-        // ログイン中の社員番号と入力日が同じ日報を検索
-        Optional<Report> option = reportRepository.findByEmployeeAndReportDate(employee, reportDate);
-        // OptionはJavaの構文で、取得できなかった場合はnullを返す
-        Report previousReport = option.orElse(null);
+        if (content.isEmpty()) {
+            return new ReportPage(content, null, null);
+        }
 
-        // もし重複した日報が見つかれば
-        if (previousReport != null) {
+        // 前に戻った場合は元のページが必ず後ろにあり、後ろに進んだ場合は元のページが必ず前にある
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : after != null;
 
-            // ErrorKindsの列挙子がDATECHECK_ERROR(同一日付チェックエラー)であることを返す
-            return ErrorKinds.DATECHECK_ERROR;
-        }
+        ReportSummary first = content.get(0);
+        ReportSummary last = content.get(content.size() - 1);
+        ReportCursor next = hasNext ? new ReportCursor(last.reportDate(), last.id()) : null;
+        ReportCursor previous = hasPrevious ? new ReportCursor(first.reportDate(), first.id()) : null;
+
+        return new ReportPage(content, next, previous);
+    }
+
+    // 日報の件数を取得(employeeCodeがnullなら全社員分)
+    @Transactional(readOnly = true)
+    public long count(String employeeCode) {
+        return employeeCode == null ? reportSummaryRepository.count()
+                : reportSummaryRepository.countByEmployeeCode(employeeCode);
+    }
+
+    // 日報保存
+    @Transactional
+    public ErrorKinds save(Report report) {
+
+        // 同じ社員番号・日付の日報の重複チェックは、DBの一意制約(論理削除されていない日報のみ対象)で行う
+        // 重複した場合はDataIntegrityViolationExceptionとなるため、呼び出し側で同一日付チェックエラーとして扱う
 
         // 削除フラグセット（設定値：false）
         report.setDeleteFlg(false);
@@ -63,49 +129,56 @@ public class ReportService {
 
         // DBに保存
         reportRepository.save(report);
+        // 該当の月の集計を更新
+        reportStatisticsService.refresh(report.getEmployee().getCode(), report.getReportDate());
+        // 検索用インデックスに登録(コミット後)
+        reportSearchService.indexAfterCommit(report);
+        // 変更履歴に記録(コミット後)
+        changeHistoryService.recordReport(ChangeAction.CREATE, report.getId(), null,
+                changeHistoryService.reportSnapshot(report));
         // ErrorKindsの列挙子がSUCCESSであることをコントローラに戻す
         return ErrorKinds.SUCCESS;
     }
 
     // 日報更新
+    // 画面を開いた時点のバージョン・日付(originalReportDate)のままであれば、1回のUPDATEで更新する
+    // 従業員は画面から送信された値を使わず、DBの日報の値を使う
+    // 変更後の日付が既に登録されている場合はDBの一意制約違反(DataIntegrityViolationException)となり、呼び出し側で同一日付チェックエラーとして扱う
     @Transactional
-    public ErrorKinds update(Integer id, Report report) {
-
-        // 更新対象の元のデータを取得(DBから一件検索した結果をoriginalReportに代入）
-        Report originalReport = findById(id);
-
-        // もし更新フォームで日付を変更したら重複チェック(reportの日付とoriginalReportの日付の不一致)
-        if (!(report.getReportDate().equals(originalReport.getReportDate()))) {
-
-            // 更新画面で表示中の社員番号を特定
-            Employee employee = report.getEmployee();
-            // 入力した日付を取得
-            LocalDate reportDate = report.getReportDate();
-            // 表示中の社員番号と入力日が同じ日報を検索(過去に作成済みの日報の中に日付が重複した日報がないかDBをチェック)
-            Optional<Report> option = reportRepository.findByEmployeeAndReportDate(employee, reportDate);
-            // OptionはJavaの構文で、取得できなかった場合はnullを返す
-            Report previousReport = option.orElse(null);
-
-            // もし重複した日報が見つかれば
-            if ((previousReport != null)) {
-
-                // もし同じ日付があれば重複のため、ErrorKindsの列挙子がDATECHECK_ERROR(同一日付チェックエラー)であることを返す
-                return ErrorKinds.DATECHECK_ERROR;
-            }
+    public ErrorKinds update(Integer id, Report report, LocalDate originalReportDate) {
 
+        // 変更履歴に記録する更新前の内容
+        Map<String, Object> before = changeHistoryService.reportSnapshot(id);
+        if (before == null) {
+            // 画面を開いた後に他のユーザーが削除した
+            return ErrorKinds.OPTIMISTIC_LOCK_ERROR;
         }
-
-        // 作成日時をemployeeにセット（DB保存時のgetCreatedAtのnullエラー防止のため)
-        report.setCreatedAt(originalReport.getCreatedAt());
-        // 削除フラグをreportにセット（null防止、boolean型のためgetではなくis)
-        report.setDeleteFlg(report.isDeleteFlg());
+        // 日報の従業員の社員番号を特定
+        String employeeCode = (String) before.get("employeeCode");
         // 現在日時を取得し、nowに代入
         LocalDateTime now = LocalDateTime.now();
-        // 更新日時セット（設定値：現在日時）
-        report.setUpdatedAt(now);
 
-        // リポジトリのsaveメソッドを呼び出し、データベースに保存
-        reportRepository.save(report);
+        // バージョンを条件に更新(他のユーザーが先に更新・削除していれば0件)
+        int updated = reportRepository.updateVersioned(id, report.getVersion(), employeeCode, originalReportDate,
+                report.getReportDate(), report.getTitle(), report.getContent(), now);
+        if (updated == 0) {
+            // ErrorKindsの列挙子がOPTIMISTIC_LOCK_ERROR(同時更新チェックエラー)であることを返す
+            return ErrorKinds.OPTIMISTIC_LOCK_ERROR;
+        }
+
+        // 更新後の値をreportにセット
+        report.setId(id);
+        Employee employee = new Employee();
+        employee.setCode(employeeCode);
+        report.setEmployee(employee);
+        report.setUpdatedAt(now);
+        report.setVersion(report.getVersion() + 1);
+        // 変更前・変更後の日付の月の集計を更新
+        reportStatisticsService.refresh(employeeCode, List.of(originalReportDate, report.getReportDate()));
+        // 検索用インデックスを更新(コミット後。更新前のタイトル・内容の語を取り除く)
+        reportSearchService.updateAfterCommit(report, (String) before.get("title"), (String) before.get("content"));
+        // 変更履歴に記録(コミット後)
+        changeHistoryService.recordReport(ChangeAction.UPDATE, id, before, changeHistoryService.reportSnapshot(report));
 
         // ErrorKindsの列挙子がSUCCESSであることをコントローラに戻す
         return ErrorKinds.SUCCESS;
@@ -116,18 +189,42 @@ public class ReportService {
     public void delete(Integer id) {
 
         Report report = findById(id);
+        // 変更履歴に記録(コミット後)
+        changeHistoryService.recordReport(ChangeAction.DELETE, id, changeHistoryService.reportSnapshot(report), null);
         // 現在日時を取得し、nowに代入
         LocalDateTime now = LocalDateTime.now();
         // 更新日時セット（設定値：現在日時）
         report.setUpdatedAt(now);
         // 論理削除セット
         report.setDeleteFlg(true);
+        // 該当の月の集計を更新
+        reportStatisticsService.refresh(report.getEmployee().getCode(), report.getReportDate());
+        // 検索用インデックスから削除(コミット後)
+        reportSearchService.removeAfterCommit(id, report.getTitle(), report.getContent());
+    }
+
+    // 従業員削除時に、その従業員の日報をまとめて論理削除(削除した件数を返す)
+    @Transactional
+    public int deleteByEmployeeCode(String employeeCode) {
+        // 検索用インデックスから削除(コミット後)、集計を削除
+        reportSearchService.removeByEmployeeCodeAfterCommit(employeeCode);
+        reportStatisticsService.deleteByEmployeeCode(employeeCode);
+        // 現在日時を更新日時として、1回のUPDATEで論理削除
+        return reportRepository.softDeleteByEmployeeCode(employeeCode, LocalDateTime.now());
+    }
+
+    // 日報と従業員の更新日時を取得(日報がなければnull)
+    @Transactional(readOnly = true)
+    public ReportTimestamps findTimestamps(Integer id) {
+        return reportRepository.findTimestampsById(id).orElse(null);
     }
 
     // IDによって1件を検索
+    @Transactional(readOnly = true)
     public Report findById(Integer id) {
 
-        Optional<Report> option = reportRepository.findById(id);
+        // 詳細・更新画面で氏名を表示するため、従業員も同時に取得する
+        Optional<Report> option = reportRepository.findWithEmployeeById(id);
         // OptionはJavaの構文で、取得できなかった場合はnullを返す
         Report report = option.orElse(null);
         return report;
@@ -0,0 +1,148 @@
+package com.techacademy.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.repository.EmployeeReportStatistics;
+import com.techacademy.repository.MonthlyReportCount;
+import com.techacademy.repository.ReportStatisticsRepository;
+
+// 従業員ごと・月ごとの日報の集計
+@Service
+public class ReportStatisticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportStatisticsService.class);
+
+    // 再構築中であることを示すDBの名前付きロック
+    private static final String REBUILD_LOCK = "report_statistics_rebuild";
+
+    private final ReportStatisticsRepository reportStatisticsRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+
+    public ReportStatisticsService(ReportStatisticsRepository reportStatisticsRepository, DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.report-statistics.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.reportStatisticsRepository = reportStatisticsRepository;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // 日報の日付の月を再集計(日報の登録・更新・削除と同じトランザクションで呼び出す)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(String employeeCode, LocalDate reportDate) {
+        YearMonth month = YearMonth.from(reportDate);
+        reportStatisticsRepository.deleteMonth(employeeCode, month.atDay(1));
+        reportStatisticsRepository.insertMonth(employeeCode, month.atDay(1), month.atEndOfMonth());
+    }
+
+    // 複数の日付の月を再集計(同じ月は1回のみ)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(String employeeCode, Collection<LocalDate> reportDates) {
+        reportDates.stream().map(YearMonth::from).distinct()
+                .forEach(month -> refresh(employeeCode, month.atDay(1)));
+    }
+
+    // 従業員の集計を削除(従業員削除時、日報の一括論理削除と同じトランザクションで呼び出す)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteByEmployeeCode(String employeeCode) {
+        reportStatisticsRepository.deleteByEmployeeCode(employeeCode);
+    }
+
+    // 起動時の再構築(app.report-statistics.rebuild-on-startup=trueの場合のみ)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    // 日報から全件を集計し直す(定期実行。DBを直接更新した場合などのずれを修正する)
+    // 複数台で動かしている場合はDBの名前付きロックを取得できた1台のみが実行する
+    // 日報の全件を1つのトランザクションで集計すると、その間reportsの全体がロックされるため、1か月分ずつ別のトランザクションで集計する
+    @Scheduled(cron = "${app.report-statistics.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        // ロックは接続(セッション)に紐付くため、再構築が終わるまで同じ接続を保持して解放する
+        try (Connection connection = dataSource.getConnection()) {
+            if (!lock(connection, "SELECT GET_LOCK(?, 0)")) {
+                LOGGER.info("Report statistics rebuild skipped: running on another instance");
+                return;
+            }
+            try {
+                rebuildMonths();
+            } finally {
+                lock(connection, "SELECT RELEASE_LOCK(?)");
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Report statistics rebuild failed", e);
+        }
+    }
+
+    private void rebuildMonths() {
+        LocalDate from = min(reportStatisticsRepository.findMinReportDate(),
+                reportStatisticsRepository.findMinReportMonth());
+        LocalDate to = max(reportStatisticsRepository.findMaxReportDate(),
+                reportStatisticsRepository.findMaxReportMonth());
+        if (from == null) {
+            return;
+        }
+        int rows = 0;
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            YearMonth target = month;
+            rows += transactionTemplate.execute(status -> {
+                reportStatisticsRepository.deleteAllOfMonth(target.atDay(1));
+                return reportStatisticsRepository.insertAllOfMonth(target.atDay(1), target.atEndOfMonth());
+            });
+        }
+        LOGGER.info("Report statistics rebuilt: {} employee-months", rows);
+    }
+
+    private static boolean lock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, REBUILD_LOCK);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    // 指定した月の従業員ごとの集計
+    public List<EmployeeReportStatistics> findByMonth(YearMonth month) {
+        return reportStatisticsRepository.findByMonth(month.atDay(1));
+    }
+
+    // 期間内の月ごとの件数
+    public List<MonthlyReportCount> sumByMonth(YearMonth from, YearMonth to) {
+        return reportStatisticsRepository.sumByMonth(from.atDay(1), to.atDay(1));
+    }
+}
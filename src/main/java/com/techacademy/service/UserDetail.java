@@ -1,37 +1,73 @@
 package com.techacademy.service;
 
-import java.util.ArrayList;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
 
-public class UserDetail implements UserDetails {
-    private static final long serialVersionUID = 1L;
+// ログイン中の従業員の情報(セッションに保存される)
+// Employeeエンティティは保持せず、社員番号・氏名・権限のみを持つ(日報の登録など、更新時は社員番号から参照を取得する)
+// パスワードのハッシュは認証にのみ使い、認証後に消去する。セッションに保存される形式にも含めない
+public class UserDetail implements UserDetails, CredentialsContainer {
+    private static final long serialVersionUID = 2L;
 
-    private final Employee employee;
+    private final String code;
+    private final String name;
+    private final Role role;
     private final List<SimpleGrantedAuthority> authorities;
+    private String password;
 
     // UserDetailServiceから受け取ったemployeeエンティティを元にインスタンス化
     public UserDetail(Employee employee) {
+        this(employee.getCode(), employee.getName(), employee.getRole(), employee.getPassword());
+    }
+
+    private UserDetail(String code, String name, Role role, String password) {
+        this.code = code;
+        this.name = name;
+        this.role = role;
+        this.password = password;
+        // 従業員の権限(ADMIN/GENERAL)をSimpleGrantedAuthorityとして登録
+        this.authorities = List.of(new SimpleGrantedAuthority(role.toString()));
+    }
 
-        // 渡されたemployeeエンティティを丸ごと格納
-        this.employee = employee;
+    // パスワードのハッシュを差し替えた複製(ログイン時の再ハッシュ用)
+    public UserDetail withPassword(String password) {
+        return new UserDetail(code, name, role, password);
+    }
+
+    // 複製(キャッシュ内のユーザ情報は認証後に消去されないよう、複製を返す)
+    public UserDetail copy() {
+        return withPassword(password);
+    }
 
-        // employeeの権限プロパティを元にリストをインスタンス化、初期化
-        List<SimpleGrantedAuthority> authorities = new ArrayList<SimpleGrantedAuthority>();
-        // 従業員の権限(ADMIN/GENERAL)をSimpleGrantedAuthorityのauthoritiesリストに登録
-        authorities.add(new SimpleGrantedAuthority(employee.getRole().toString()));
-        // 権限リストをフィールドに格納
-        this.authorities = authorities;
+    // 社員番号
+    public String getCode() {
+        return code;
     }
 
-    public Employee getEmployee() {
-        return employee;
+    // 氏名
+    public String getName() {
+        return name;
+    }
+
+    // 権限
+    public Role getRole() {
+        return role;
+    }
+
+    // 管理者かどうか
+    public boolean isAdmin() {
+        return Role.ADMIN == role;
     }
 
     @Override
@@ -41,12 +77,18 @@ public class UserDetail implements UserDetails {
 
     @Override
     public String getPassword() {
-        return employee.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return employee.getCode();
+        return code;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        // 認証後にパスワードのハッシュを消去
+        password = null;
     }
 
     @Override
@@ -72,4 +114,32 @@ public class UserDetail implements UserDetails {
         // 従業員が有効であればtrueを返す
         return true;
     }
-}
\ No newline at end of file
+
+    // セッションには社員番号・氏名・権限のみを保存する(パスワードのハッシュは含めない)
+    private Object writeReplace() {
+        return new SerializedForm(code, name, role.name());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("UserDetail is serialized through SerializedForm");
+    }
+
+    // セッションに保存される形式
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String code;
+        private final String name;
+        private final String role;
+
+        private SerializedForm(String code, String name, String role) {
+            this.code = code;
+            this.name = name;
+            this.role = role;
+        }
+
+        private Object readResolve() {
+            return new UserDetail(code, name, Role.valueOf(role), null);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.techacademy.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 認証時に使用するユーザ情報(UserDetail)のキャッシュ
+// 上限件数を超えた場合は最も長く使われていないものから削除し、有効期限を過ぎたものは再度DBから取得させる
+@Component
+public class UserDetailCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // 社員番号をキーにしたキャッシュ本体(アクセス順に並べ、先頭が最も長く使われていないもの)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    // ヒット数・ミス数・削除数(上限超過、期限切れ、従業員の更新による削除の合計)
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public UserDetailCache(@Value("${app.user-detail-cache.max-size:1000}") int maxSize,
+            @Value("${app.user-detail-cache.ttl:5m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // 社員番号でキャッシュを検索(なければ、または有効期限切れならnullを返す)
+    public UserDetail get(String code) {
+        synchronized (entries) {
+            Entry entry = entries.get(code);
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                entries.remove(code);
+                evictionCount.incrementAndGet();
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return entry.userDetail;
+        }
+    }
+
+    // キャッシュに登録(上限件数を超えた場合は最も長く使われていないものを削除)
+    public void put(String code, UserDetail userDetail) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(code, new Entry(userDetail, System.nanoTime() + ttlNanos));
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    // 従業員の登録・更新・削除時にキャッシュから削除
+    // トランザクション中の場合は、コミット前に古い情報が再登録されないようコミット後にも削除する
+    public void evict(String code) {
+        remove(code);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(code);
+                }
+            });
+        }
+    }
+
+    // キャッシュを全て削除
+    public void clear() {
+        synchronized (entries) {
+            evictionCount.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    private void remove(String code) {
+        synchronized (entries) {
+            if (entries.remove(code) != null) {
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    // 現在の件数
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    // キャッシュの1件分(ユーザ情報と有効期限)
+    private static final class Entry {
+        private final UserDetail userDetail;
+        private final long expiresAt;
+
+        private Entry(UserDetail userDetail, long expiresAt) {
+            this.userDetail = userDetail;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -3,23 +3,33 @@ package com.techacademy.service;
 import java.util.Optional;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.repository.EmployeeRepository;
 
 @Service // Spring Securityでの認証時に使用するユーザ情報を提供するクラス
-public class UserDetailService implements UserDetailsService {
+public class UserDetailService implements UserDetailsService, UserDetailsPasswordService {
     private final EmployeeRepository employeeRepository;
+    private final UserDetailCache userDetailCache;
 
-    public UserDetailService(EmployeeRepository repository) {
+    public UserDetailService(EmployeeRepository repository, UserDetailCache userDetailCache) {
         this.employeeRepository = repository;
+        this.userDetailCache = userDetailCache;
     }
 
     @Override // Spring securityが認証時に呼び出すloadUserByUsernameメソッド(ユーザー名はログイン時の従業員code)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // キャッシュにあればDBを検索せずに返す(認証後にパスワードが消去されるため複製を返す)
+        UserDetail cached = userDetailCache.get(username);
+        if (cached != null) {
+            return cached.copy();
+        }
+
         // 従業員コードで従業員を検索し、employeeデータがあるかないかをみる(Optionalはnull回避のため)
         Optional<Employee> employee = employeeRepository.findById(username);
 
@@ -28,7 +38,20 @@ public class UserDetailService implements UserDetailsService {
             throw new UsernameNotFoundException("Exception:Username Not Found");
         }
 
-        // データがあれば、従業員データをspring security用のUserDetailを生成して返す
-        return new UserDetail(employee.get());
+        // データがあれば、従業員データをspring security用のUserDetailを生成し、キャッシュに登録して返す
+        UserDetail userDetail = new UserDetail(employee.get());
+        userDetailCache.put(username, userDetail);
+        return userDetail.copy();
+    }
+
+    @Override // ログイン成功時、保存済みのハッシュの強度が現在の設定より低ければSpring securityが呼び出す(newPasswordは再ハッシュ済み)
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        employeeRepository.updatePassword(user.getUsername(), newPassword);
+        // 古いハッシュを持つユーザ情報をキャッシュから削除
+        userDetailCache.evict(user.getUsername());
+
+        // ハッシュのみを差し替えたユーザ情報を返す(従業員は再取得しない)
+        return ((UserDetail) user).withPassword(newPassword);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.techacademy.web;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// 同時に処理するリクエスト数の上限
+// 仮想スレッドではスレッド数による制限がなくなるため、上限を超えたリクエストは一定時間待たせた後503を返し、
+// DBの接続プールの待ち行列が際限なく伸びないようにする
+// 非同期処理(CSV出力のStreamingResponseBody等)は、最初の処理が戻った後もDBの接続を使い続けるため完了まで数える
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // 上限(0以下なら制限しない)
+    private final int maxConcurrent;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+
+    // 上限を超えて503を返した件数
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public ConcurrencyLimitFilter(@Value("${app.request-limit.max-concurrent:0}") int maxConcurrent,
+            @Value("${app.request-limit.queue-timeout:1s}") Duration queueTimeout) {
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.permits = new Semaphore(Math.max(maxConcurrent, 0));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (maxConcurrent <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.incrementAndGet();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // 非同期処理の完了(タイムアウト・エラーの場合も最後に呼ばれる)で解放する
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    // 処理中のリクエスト数
+    public int getInFlight() {
+        return maxConcurrent <= 0 ? 0 : maxConcurrent - permits.availablePermits();
+    }
+
+    // 空きを待っているリクエスト数(概算)
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // 非同期処理の完了時に上限の枠を解放する
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再度非同期処理を開始した場合も、その完了で解放されるよう登録し直す
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.techacademy.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// 詳細画面の条件付きGET(ETag・Last-Modified)
+// 表示するデータの更新日時に加え、閲覧者(権限・社員番号)とセッション(画面に埋め込まれるCSRFトークン)が同じ場合のみ304を返す
+public final class ConditionalPages {
+
+    private ConditionalPages() {
+    }
+
+    // 変更がなければtrue(304のレスポンスが設定済みのため、呼び出し側は画面を生成せずにnullを返す)
+    public static boolean checkNotModified(ServletWebRequest request, String page, LocalDateTime... updatedAts) {
+        // ブラウザに保存させ、表示のたびに確認させる(Spring Securityの既定のno-storeでは条件付きGETにならない)
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        StringBuilder key = new StringBuilder(page);
+        LocalDateTime lastModified = null;
+        for (LocalDateTime updatedAt : updatedAts) {
+            key.append('|').append(updatedAt);
+            if (lastModified == null || updatedAt.isAfter(lastModified)) {
+                lastModified = updatedAt;
+            }
+        }
+        // 閲覧者(社員番号と権限)とセッション
+        key.append('|').append(request.getRemoteUser());
+        if (request.getUserPrincipal() instanceof Authentication authentication) {
+            authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted()
+                    .forEach(authority -> key.append('|').append(authority));
+        }
+        key.append('|').append(request.getSessionId());
+
+        // 弱いETag(内容が同じ画面であることのみを表す)にして、Tomcatによるレスポンスの圧縮の対象にする
+        // (強いETagのレスポンスは、圧縮するとバイト列が変わるためTomcatが圧縮しない)
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        long lastModifiedMillis = lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+}
@@ -0,0 +1,170 @@
+package com.techacademy.web;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.service.UserDetail;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// 全画面で共通のフラグメント(ヘッダー・サイドメニュー)の生成結果のキャッシュ
+// フラグメントが宣言した入力(タイトル、ログインユーザーの権限・氏名など)とロケール・コンテキストパスが同じであれば、
+// 1回生成したHTMLをそのまま使う(テンプレートからはth:utextで埋め込む)
+// セッションごとに異なる内容(CSRFトークンを含むフォームなど)はキャッシュするフラグメントに含めないこと
+// 上限件数を超えた場合は最も長く使われていないものから削除する
+@Component
+public class FragmentRenderCache {
+
+    private final ITemplateEngine templateEngine;
+    private final boolean enabled;
+    private final int maxSize;
+
+    // 入力の組み合わせ → 生成したHTML(アクセス順に並べ、先頭が最も長く使われていないもの)
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+    // ヒット数・ミス数・削除数(上限超過による削除)
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public FragmentRenderCache(ITemplateEngine templateEngine,
+            @Value("${app.fragment-cache.enabled:true}") boolean enabled,
+            @Value("${app.fragment-cache.max-size:1000}") int maxSize) {
+        this.templateEngine = templateEngine;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    // フラグメント("テンプレート名 :: フラグメント名")を生成(parametersは入力の名前と値の組)
+    public String render(String fragment, Object... parameters) {
+        Map<String, Object> inputs = new LinkedHashMap<String, Object>();
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            inputs.put(String.valueOf(parameters[i]), parameters[i + 1]);
+        }
+        return renderCached(fragment, inputs);
+    }
+
+    // ログインユーザーの権限(role: ADMIN/GENERAL、未ログインならnull)と氏名(name)を入力に加えて生成
+    public String renderForUser(String fragment, Object... parameters) {
+        Map<String, Object> inputs = new LinkedHashMap<String, Object>();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            boolean admin = authentication.getAuthorities().stream()
+                    .anyMatch(authority -> Role.ADMIN.name().equals(authority.getAuthority()));
+            inputs.put("role", (admin ? Role.ADMIN : Role.GENERAL).name());
+            inputs.put("name", authentication.getPrincipal() instanceof UserDetail userDetail ? userDetail.getName()
+                    : authentication.getName());
+        } else {
+            inputs.put("role", null);
+            inputs.put("name", null);
+        }
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            inputs.put(String.valueOf(parameters[i]), parameters[i + 1]);
+        }
+        return renderCached(fragment, inputs);
+    }
+
+    // 全て削除(従業員の登録・更新・削除時)
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private String renderCached(String fragment, Map<String, Object> inputs) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder
+                .currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        Locale locale = LocaleContextHolder.getLocale();
+        if (!enabled) {
+            return process(fragment, inputs, request, attributes.getResponse(), locale);
+        }
+
+        String key = fragment + '|' + locale + '|' + request.getContextPath() + '|' + inputs;
+        String html;
+        synchronized (entries) {
+            html = entries.get(key);
+        }
+        if (html != null) {
+            hitCount.incrementAndGet();
+            return html;
+        }
+        missCount.incrementAndGet();
+        // 生成はロックの外で行う(同時に生成した場合は後から登録した内容で置き換わるのみ)
+        html = process(fragment, inputs, request, attributes.getResponse(), locale);
+        if (maxSize > 0) {
+            synchronized (entries) {
+                entries.put(key, html);
+                Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+                while (entries.size() > maxSize && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                    evictionCount.incrementAndGet();
+                }
+            }
+        }
+        return html;
+    }
+
+    private String process(String fragment, Map<String, Object> inputs, HttpServletRequest request,
+            HttpServletResponse response, Locale locale) {
+        int separator = fragment.indexOf("::");
+        String template = fragment.substring(0, separator).strip();
+        String selector = fragment.substring(separator + 2).strip();
+
+        WebContext context = new WebContext(JakartaServletWebApplication
+                .buildApplication(request.getServletContext()).buildExchange(request, new SharedUrlResponse(response)),
+                locale, inputs);
+        return templateEngine.process(template, Set.of(selector), context);
+    }
+
+    // 他のユーザーにも返すHTMLのため、URLにセッションIDを含めない
+    private static final class SharedUrlResponse extends HttpServletResponseWrapper {
+        private SharedUrlResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public String encodeURL(String url) {
+            return super.encodeURL(url).replaceFirst(";jsessionid=[^?#]*", "");
+        }
+    }
+}
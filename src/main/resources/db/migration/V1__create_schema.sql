@@ -0,0 +1,39 @@
+-- 従業員・日報・日報集計のテーブル
+CREATE TABLE employees (
+    code VARCHAR(10) NOT NULL,
+    name VARCHAR(20) NOT NULL,
+    role VARCHAR(10) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    delete_flg TINYINT NOT NULL,
+    version INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (code)
+) ENGINE = InnoDB;
+
+-- 同じ従業員・同じ日付の有効な日報は1件のみ(live_flgは論理削除されていなければ1、されていればNULLの生成列)
+CREATE TABLE reports (
+    id INT NOT NULL AUTO_INCREMENT,
+    report_date DATE NOT NULL,
+    title VARCHAR(100) NOT NULL,
+    content LONGTEXT NOT NULL,
+    delete_flg TINYINT NOT NULL,
+    live_flg TINYINT GENERATED ALWAYS AS (IF(delete_flg = 0, 1, NULL)) VIRTUAL,
+    version INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    employee_code VARCHAR(10) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_reports_employee_date UNIQUE (employee_code, report_date, live_flg),
+    CONSTRAINT fk_reports_employee FOREIGN KEY (employee_code) REFERENCES employees (code)
+) ENGINE = InnoDB;
+
+CREATE TABLE report_statistics (
+    employee_code VARCHAR(10) NOT NULL,
+    report_month DATE NOT NULL,
+    report_count BIGINT NOT NULL,
+    latest_report_date DATE NOT NULL,
+    last_submitted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (employee_code, report_month),
+    INDEX idx_report_statistics_month (report_month)
+) ENGINE = InnoDB;
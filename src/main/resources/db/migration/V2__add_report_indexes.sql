@@ -0,0 +1,8 @@
+-- 日報の検索条件(論理削除されていないことは全ての検索の条件になる)に合わせた複合インデックス
+-- InnoDBのセカンダリインデックスは主キー(id)を含むため、日付・IDの降順の一覧はインデックスの順に読むだけで済む
+
+-- 全社員の日報一覧・CSV出力(delete_flg = 0、日付・IDの順)
+CREATE INDEX idx_reports_live_date ON reports (delete_flg, report_date);
+
+-- 従業員ごとの日報一覧・件数、日付の重複チェック、月ごとの集計(employee_code、delete_flg = 0、日付の範囲・順)
+CREATE INDEX idx_reports_employee_live_date ON reports (employee_code, delete_flg, report_date);
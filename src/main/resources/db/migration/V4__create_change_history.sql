@@ -0,0 +1,25 @@
+-- 日報・従業員の変更履歴(変更前・変更後の内容はJSON、登録時の変更前・削除時の変更後はNULL)
+-- 書き込みを軽くするため外部キーは設けず、参照は対象ごとの新しい順のみ
+CREATE TABLE report_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    report_id INT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    changed_by VARCHAR(10),
+    changed_at DATETIME(6) NOT NULL,
+    before_data LONGTEXT,
+    after_data LONGTEXT,
+    PRIMARY KEY (id),
+    INDEX idx_report_history_report (report_id, id)
+) ENGINE = InnoDB;
+
+CREATE TABLE employee_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    employee_code VARCHAR(10) NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    changed_by VARCHAR(10),
+    changed_at DATETIME(6) NOT NULL,
+    before_data LONGTEXT,
+    after_data LONGTEXT,
+    PRIMARY KEY (id),
+    INDEX idx_employee_history_employee (employee_code, id)
+) ENGINE = InnoDB;
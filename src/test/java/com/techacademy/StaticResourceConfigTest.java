@@ -0,0 +1,76 @@
+package com.techacademy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+// DBを使わないよう、css・jsの配信設定のみでMVCを構成して確認する
+class StaticResourceConfigTest {
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void beforeEach() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        // 期間の指定(365d)を変換できるよう、Spring Bootと同じ変換を使う
+        context.addBeanFactoryPostProcessor(
+                beanFactory -> beanFactory.setConversionService(ApplicationConversionService.getSharedInstance()));
+        context.register(WebMvc.class, StaticResourceConfig.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(ResourceUrlEncodingFilter.class)).build();
+    }
+
+    @AfterEach
+    void afterEach() {
+        context.close();
+    }
+
+    // テンプレートから参照するURLには内容のハッシュが付く
+    @Test
+    void testFingerprintedUrl() throws Exception {
+        String url = context.getBean(ResourceUrlProvider.class).getForLookupPath("/css/bootstrap.min.css");
+        assertTrue(url.matches("/css/bootstrap\\.min-[0-9a-f]{32}\\.css"), url);
+        assertNotEquals(url, context.getBean(ResourceUrlProvider.class).getForLookupPath("/js/bootstrap.min.js"));
+
+        // ハッシュ付きのURLは期限までキャッシュさせる
+        mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    // 圧縮済みファイルがあり、ブラウザが対応していればそちらを返す(ビルド時に.gzが生成されていること)
+    @Test
+    void testPrecompressed() throws Exception {
+        String url = context.getBean(ResourceUrlProvider.class).getForLookupPath("/js/bootstrap.min.js");
+        MvcResult plain = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING)).andReturn();
+        MvcResult gzip = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding")).andReturn();
+        assertTrue(gzip.getResponse().getContentLength() < plain.getResponse().getContentLength());
+        assertEquals(plain.getResponse().getContentType(), gzip.getResponse().getContentType());
+    }
+
+    @EnableWebMvc
+    static class WebMvc {
+    }
+}
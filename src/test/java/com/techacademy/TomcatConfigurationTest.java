@@ -0,0 +1,136 @@
+package com.techacademy;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import com.techacademy.connector.ConnectorProperties;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// アプリケーションを起動せず、応答を返すだけのサーブレットを登録したTomcatで確認する
+class TomcatConfigurationTest {
+
+    @TempDir
+    Path directory;
+
+    private ConnectorProperties properties;
+    private ServerProperties serverProperties;
+    private WebServer webServer;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new ConnectorProperties();
+        properties.getAjp().setEnabled(false);
+        serverProperties = new ServerProperties();
+        serverProperties.setForwardHeadersStrategy(ServerProperties.ForwardHeadersStrategy.NATIVE);
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (webServer != null) {
+            webServer.stop();
+        }
+    }
+
+    // UnixドメインソケットのHTTPのコネクタで応答する(停止時にソケットファイルは削除される)
+    @Test
+    void testHttpOnUnixSocket() throws Exception {
+        Path socket = directory.resolve("http.sock");
+        properties.getUnixSocket().setHttpPath(socket.toString());
+        start();
+
+        String response = get(socket);
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.endsWith("ok"), response);
+
+        webServer.stop();
+        webServer = null;
+        assertTrue(Files.notExists(socket));
+    }
+
+    // 異常終了で残ったソケットファイルは削除してから待ち受ける
+    @Test
+    void testStaleSocket() throws Exception {
+        Path socket = directory.resolve("http.sock");
+        try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(socket));
+        }
+        assertTrue(Files.exists(socket));
+        properties.getUnixSocket().setHttpPath(socket.toString());
+        start();
+
+        assertTrue(get(socket).startsWith("HTTP/1.1 200"));
+    }
+
+    // 他のプロセスが使用中のソケットや、ソケット以外のファイルは削除せずに起動を中止する
+    @Test
+    void testSocketInUse() throws Exception {
+        Path socket = directory.resolve("http.sock");
+        try (ServerSocketChannel inUse = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            inUse.bind(UnixDomainSocketAddress.of(socket));
+            properties.getUnixSocket().setHttpPath(socket.toString());
+            assertThrows(IllegalStateException.class, this::start);
+        }
+
+        Path file = Files.writeString(directory.resolve("file.sock"), "data");
+        properties.getUnixSocket().setHttpPath(file.toString());
+        assertThrows(IllegalStateException.class, this::start);
+        assertTrue(Files.exists(file));
+    }
+
+    // HTTPのソケットで接続元のアドレスを受け取る設定(server.forward-headers-strategy)がなければ起動を中止する
+    @Test
+    void testHttpSocketRequiresForwardHeaders() {
+        properties.getUnixSocket().setHttpPath(directory.resolve("http.sock").toString());
+        serverProperties.setForwardHeadersStrategy(null);
+        assertThrows(IllegalStateException.class, this::start);
+
+        serverProperties.setForwardHeadersStrategy(ServerProperties.ForwardHeadersStrategy.NONE);
+        assertThrows(IllegalStateException.class, this::start);
+    }
+
+    private void start() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new TomcatConfiguration(false, properties, serverProperties).customize(factory);
+        webServer = factory.getWebServer(servletContext -> servletContext.addServlet("ok", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write("ok");
+            }
+        }).addMapping("/"));
+        webServer.start();
+    }
+
+    // HTTP/1.1で1回だけ要求を送り、接続が閉じられるまでの応答を返す
+    private static String get(Path socket) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            channel.write(StandardCharsets.US_ASCII
+                    .encode("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"));
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (channel.read(buffer) >= 0 && buffer.hasRemaining()) {
+            }
+            buffer.flip();
+            return StandardCharsets.US_ASCII.decode(buffer).toString();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.techacademy.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.repository.ReportSummary;
+import com.techacademy.service.UserDetail;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReportControllerTest {
+
+    private MockMvc mockMvc;
+
+    private final WebApplicationContext webApplicationContext;
+
+    ReportControllerTest(WebApplicationContext context) {
+        this.webApplicationContext = context;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // Spring Securityを有効にする
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+    }
+
+    // ログインユーザー(管理者)
+    private UserDetail adminUser() {
+        Employee employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee.setDeleteFlg(false);
+        employee.setPassword("");
+        employee.setRole(Role.ADMIN);
+        return new UserDetail(employee);
+    }
+
+    // 日報一覧画面
+    // テストケース1 表示件数を指定した場合、指定件数と次ページへのカーソルが返る
+    @Test
+    void testListPage() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        MvcResult result = mockMvc.perform(get("/reports").param("size", "1").with(user(adminUser()))) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(model().attributeExists("reportList")) // Modelの内容を確認
+                .andExpect(model().attributeDoesNotExist("listSize")) // 件数の指定がなければカウントしない
+                .andExpect(view().name("reports/list")) // viewの確認
+                .andReturn(); // 内容の取得
+
+        @SuppressWarnings("unchecked")
+        List<ReportSummary> reportList = (List<ReportSummary>) result.getModelAndView().getModel().get("reportList");
+        assertEquals(reportList.size(), 1);
+        assertNotNull(result.getModelAndView().getModel().get("nextCursor"));
+    }
+
+    // テストケース2 件数の表示を指定した場合
+    @Test
+    void testListCount() throws Exception {
+        // HTTPリクエストに対するレスポンスの検証
+        mockMvc.perform(get("/reports").param("count", "true").with(user(adminUser()))) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(model().attributeExists("listSize")) // Modelの内容を確認
+                .andExpect(view().name("reports/list")); // viewの確認
+    }
+
+    // 日報詳細画面
+    // テストケース3 変更がなければ同じセッションからの再表示は304になる
+    @Test
+    void testDetailNotModified() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        MvcResult result = mockMvc.perform(get("/reports/1/").session(session).with(user(adminUser()))) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(view().name("reports/detail")) // viewの確認
+                .andReturn(); // 内容の取得
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // 同じETagで再度アクセスすると、画面を生成せずに304を返す
+        mockMvc.perform(get("/reports/1/").session(session).header(HttpHeaders.IF_NONE_MATCH, etag)
+                .with(user(adminUser()))).andExpect(status().isNotModified());
+    }
+
+    // 日報更新処理
+    // テストケース4 画面を開いた後に更新されていれば(バージョンが異なれば)、更新せずに同時更新チェックエラーを表示する
+    // 従業員は画面から送信しない(DBの日報の従業員を使う)
+    @Test
+    void testUpdateConflict() throws Exception {
+        mockMvc.perform(post("/reports/1/update").param("version", "999")
+                .param("originalReportDate", LocalDate.now().toString()).param("reportDate", LocalDate.now().toString())
+                .param("title", "タイトル").param("content", "内容").with(user(adminUser())).with(csrf())) // URLにアクセス
+                .andExpect(status().isOk()) // ステータスを確認
+                .andExpect(model().attributeExists("versionError")) // Modelの内容を確認
+                .andExpect(view().name("reports/update")); // viewの確認
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.techacademy.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaNode replica0 = new ReplicaNode("replica-0", new HikariDataSource());
+    private final ReplicaNode replica1 = new ReplicaNode("replica-1", new HikariDataSource());
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new HikariDataSource(),
+            List.of(replica0, replica1), Duration.ofMinutes(1));
+
+    @AfterEach
+    void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // 読み取り専用のトランザクションは正常なレプリカに順番に振り分け、正常なレプリカがなければプライマリを使う
+    @Test
+    void testReadOnlyRouting() {
+        replica0.update(true, 0);
+        replica1.update(true, 0);
+        beginTransaction(true);
+        assertEquals(routing.determineCurrentLookupKey(), "replica-0");
+        assertEquals(routing.determineCurrentLookupKey(), "replica-1");
+        assertEquals(routing.determineCurrentLookupKey(), "replica-0");
+
+        // 遅延が大きい・接続できないレプリカは対象外
+        replica0.update(false, 30);
+        assertEquals(routing.determineCurrentLookupKey(), "replica-1");
+        assertEquals(routing.determineCurrentLookupKey(), "replica-1");
+        replica1.update(false, -1);
+        assertEquals(routing.determineCurrentLookupKey(), ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    // 更新のトランザクション、トランザクション外はプライマリを使う
+    @Test
+    void testWriteRouting() {
+        replica0.update(true, 0);
+        replica1.update(true, 0);
+        assertEquals(routing.determineCurrentLookupKey(), ReplicaRoutingDataSource.PRIMARY);
+        beginTransaction(false);
+        assertEquals(routing.determineCurrentLookupKey(), ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    // 更新をコミットしたセッションの参照は、一定時間プライマリを使う
+    @Test
+    void testReadAfterWrite() {
+        replica0.update(true, 0);
+        replica1.update(true, 0);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        beginTransaction(true);
+        assertEquals(routing.determineCurrentLookupKey(), ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
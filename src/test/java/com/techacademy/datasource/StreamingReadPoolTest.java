@@ -0,0 +1,20 @@
+package com.techacademy.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class StreamingReadPoolTest {
+
+    // MySQLの接続URLのみuseCursorFetch=trueを付ける
+    @Test
+    void testCursorFetchUrl() {
+        assertEquals("jdbc:mysql://localhost/db?useSSL=false&useCursorFetch=true",
+                StreamingReadPool.cursorFetchUrl("jdbc:mysql://localhost/db?useSSL=false"));
+        assertEquals("jdbc:mysql://localhost/db?useCursorFetch=true",
+                StreamingReadPool.cursorFetchUrl("jdbc:mysql://localhost/db"));
+        assertEquals("jdbc:mysql://localhost/db?useCursorFetch=false",
+                StreamingReadPool.cursorFetchUrl("jdbc:mysql://localhost/db?useCursorFetch=false"));
+        assertEquals("jdbc:h2:mem:db", StreamingReadPool.cursorFetchUrl("jdbc:h2:mem:db"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.techacademy.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class ChangeHistoryWriterTest {
+
+    // INSERTした行(SQLの先頭のテーブル名と対象のキー)
+    private final List<String> written = new ArrayList<String>();
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            String table = sql.substring("INSERT INTO ".length(), sql.indexOf('('));
+            synchronized (written) {
+                for (Object[] args : batchArgs) {
+                    written.add(table + ":" + args[0]);
+                }
+            }
+            return new int[batchArgs.size()];
+        }
+    };
+
+    private final PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    // 積んだ履歴は停止時までに全て、対象ごとのテーブルに書き込まれる
+    @Test
+    void testFlushOnStop() {
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, transactionManager, 100, 10,
+                Duration.ofSeconds(1));
+        writer.start();
+        for (int i = 0; i < 25; i++) {
+            writer.submit(entry(ChangeTarget.REPORT, String.valueOf(i)));
+        }
+        writer.submit(entry(ChangeTarget.EMPLOYEE, "1"));
+        writer.stop();
+
+        assertEquals(written.size(), 26);
+        assertEquals(written.stream().filter(row -> row.startsWith("employee_history:")).count(), 1);
+        assertEquals(writer.getQueued(), 0);
+        assertEquals(writer.getWrittenCount(), 26);
+    }
+
+    // 停止中は呼び出し元で書き込む(履歴を失わない)
+    @Test
+    void testWriteWhenStopped() {
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, transactionManager, 1, 10,
+                Duration.ofMillis(10));
+        writer.submit(entry(ChangeTarget.REPORT, "1"));
+        writer.submit(entry(ChangeTarget.REPORT, "2"));
+
+        assertEquals(written, List.of("report_history:1", "report_history:2"));
+        assertEquals(writer.getCallerWrittenCount(), 2);
+    }
+
+    private ChangeHistoryEntry entry(ChangeTarget target, String key) {
+        return new ChangeHistoryEntry(target, key, ChangeAction.UPDATE, "1", LocalDateTime.now(), "{}", "{}");
+    }
+}
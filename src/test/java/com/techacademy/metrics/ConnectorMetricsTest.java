@@ -0,0 +1,65 @@
+package com.techacademy.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+
+import com.techacademy.TomcatConfiguration;
+import com.techacademy.connector.ConnectorProperties;
+
+// アプリケーションを起動せず、HTTPとAJPのコネクタのみのTomcatを空いているポートで起動して確認する
+class ConnectorMetricsTest {
+
+    private WebServer webServer;
+    private final ConnectorMetrics metrics = new ConnectorMetrics();
+
+    @BeforeEach
+    void beforeEach() {
+        ConnectorProperties properties = new ConnectorProperties();
+        properties.getAjp().setPort(0);
+        properties.getAjp().setMaxThreads(50);
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new TomcatConfiguration(false, properties, new ServerProperties()).customize(factory);
+        webServer = factory.getWebServer();
+        webServer.start();
+    }
+
+    @AfterEach
+    void afterEach() {
+        webServer.stop();
+    }
+
+    // Webサーバーの起動前は何も出力しない
+    @Test
+    void testBeforeStart() {
+        PrometheusTextWriter writer = new PrometheusTextWriter();
+        metrics.writeTo(writer);
+        assertTrue(writer.toString().isEmpty());
+    }
+
+    // コネクタごとにスレッド・接続数を出力する
+    @Test
+    void testWriteTo() {
+        metrics.onApplicationEvent(new ServletWebServerInitializedEvent(webServer, null));
+        PrometheusTextWriter writer = new PrometheusTextWriter();
+        metrics.writeTo(writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("tomcat_connector_threads_max{connector=\"http-nio-"), text);
+        // AJPのコネクタには設定したスレッド数の上限が反映されている
+        assertTrue(text.matches("(?s).*tomcat_connector_threads_max\\{connector=\"ajp-nio2-[^\"]+\"} 50\n.*"), text);
+        assertTrue(text.contains("tomcat_connector_queued{connector=\"ajp-nio2-"), text);
+        assertTrue(text.contains("tomcat_connector_connections{connector=\"http-nio-"), text);
+        // HELP・TYPEはメトリクスごとに1回のみ
+        String type = "# TYPE tomcat_connector_connections gauge";
+        assertEquals(text.indexOf(type), text.lastIndexOf(type));
+    }
+}
@@ -0,0 +1,37 @@
+package com.techacademy.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    // 記録した件数が区切りごとに累積される
+    @Test
+    void testCumulativeCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_000L); // 1ms
+        histogram.record(20_000_000L); // 20ms
+        histogram.record(60_000_000_000L); // 60s(+Inf)
+
+        long[] counts = histogram.cumulativeCounts();
+        assertEquals(counts[0], 1); // 5ms以下
+        assertEquals(counts[2], 2); // 25ms以下
+        assertEquals(counts[counts.length - 1], 3); // +Inf
+        assertEquals(histogram.getCount(), 3);
+    }
+
+    // パーセンタイルは区切り内で線形補間される
+    @Test
+    void testQuantile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.quantile(0.5), 0);
+
+        for (int i = 0; i < 100; i++) {
+            histogram.record(7_000_000L); // 7ms(5ms～10msの区切り)
+        }
+        assertEquals(histogram.quantile(0.5), 0.0075, 1e-9);
+        assertEquals(histogram.quantile(1.0), 0.01, 1e-9);
+    }
+
+}
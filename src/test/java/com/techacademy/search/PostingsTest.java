@@ -0,0 +1,53 @@
+package com.techacademy.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PostingsTest {
+
+    // 登録順によらず日報IDの昇順に並び、同じ日報IDは出現回数を置き換える
+    @Test
+    void testPut() {
+        Postings postings = new Postings();
+        for (int reportId : new int[] { 5, 1, 9, 3, 7, 2 }) {
+            postings.put(reportId, reportId * 10);
+        }
+        postings.put(3, 1);
+
+        assertEquals(postings.size(), 6);
+        int[] expected = { 1, 2, 3, 5, 7, 9 };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(postings.reportId(i), expected[i]);
+        }
+        assertEquals(postings.get(3), 1);
+        assertEquals(postings.get(9), 90);
+        assertEquals(postings.get(4), 0);
+    }
+
+    // 削除・一括削除後も昇順のまま、領域を切り詰めた後も追加できる
+    @Test
+    void testRemove() {
+        Postings postings = new Postings();
+        for (int reportId = 1; reportId <= 10; reportId++) {
+            postings.put(reportId, 1);
+        }
+        postings.remove(1);
+        postings.remove(11);
+        postings.removeAll(new int[] { 2, 4, 10 });
+
+        assertEquals(postings.size(), 6);
+        assertEquals(postings.reportId(0), 3);
+        assertEquals(postings.reportId(5), 9);
+
+        postings.trimToSize();
+        postings.put(20, 2);
+        postings.put(6, 3);
+        assertEquals(postings.get(20), 2);
+        assertEquals(postings.get(6), 3);
+
+        postings.removeAll(new int[] { 3, 5, 6, 7, 8, 9, 20 });
+        assertTrue(postings.isEmpty());
+    }
+}
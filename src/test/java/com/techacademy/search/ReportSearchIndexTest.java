@@ -0,0 +1,91 @@
+package com.techacademy.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReportSearchIndexTest {
+
+    // 日本語のキーワードで検索でき、タイトルに含まれる日報が上位になる
+    @Test
+    void testSearchRanking() {
+        ReportSearchIndex index = new ReportSearchIndex();
+        index.index(1, "1", "定例会議", "株式会社サンプルとの打ち合わせ");
+        index.index(2, "1", "株式会社サンプル訪問", "新製品の説明");
+        index.index(3, "2", "社内研修", "研修の内容");
+
+        List<ReportSearchHit> hits = index.search("サンプル", null);
+        assertEquals(hits.size(), 2);
+        assertEquals(hits.get(0).reportId(), 2);
+        assertEquals(hits.get(1).reportId(), 1);
+
+        // 社員番号を指定した場合はその従業員の日報のみ
+        assertTrue(index.search("研修", "1").isEmpty());
+        assertEquals(index.search("研修", "2").size(), 1);
+    }
+
+    // 全角英数字・大文字でも同じ語として検索できる
+    @Test
+    void testNormalize() {
+        ReportSearchIndex index = new ReportSearchIndex();
+        index.index(1, "1", "ＡＢＣ商事", "");
+
+        assertEquals(index.search("abc", null).size(), 1);
+    }
+
+    // 更新・削除した内容が検索結果に反映される
+    @Test
+    void testUpdateAndRemove() {
+        ReportSearchIndex index = new ReportSearchIndex();
+        index.index(1, "1", "午前", "見積書の作成");
+        index.update(1, "1", "午前", "見積書の作成", "午前", "請求書の作成");
+        index.index(2, "2", "午後", "請求書の送付");
+
+        assertTrue(index.search("見積", null).isEmpty());
+        assertEquals(index.search("請求書", null).size(), 2);
+
+        index.remove(1, "午前", "請求書の作成");
+        assertEquals(index.search("請求書", null).size(), 1);
+        index.removeByEmployeeCode("2");
+        assertTrue(index.search("請求書", null).isEmpty());
+        assertEquals(index.termCount(), 0);
+    }
+
+    // 再構築中に行われた追加・削除は再構築後のインデックスにも反映される
+    @Test
+    void testRebuild() {
+        ReportSearchIndex index = new ReportSearchIndex();
+        index.index(1, "1", "削除される日報", "");
+
+        ReportSearchIndex rebuilt = index.beginRebuild();
+        rebuilt.index(1, "1", "削除される日報", "");
+        index.index(2, "1", "再構築中に登録", "");
+        index.remove(1, "削除される日報", "");
+        index.completeRebuild(rebuilt);
+
+        assertEquals(index.size(), 1);
+        assertEquals(index.search("登録", null).size(), 1);
+        assertTrue(index.search("削除", null).isEmpty());
+    }
+
+    // 再構築中の更新は、再構築で読み込んだ内容が更新前・更新後のどちらでも反映される
+    @Test
+    void testUpdateDuringRebuild() {
+        ReportSearchIndex index = new ReportSearchIndex();
+        index.index(1, "1", "見積書", "");
+        index.index(2, "1", "見積書", "");
+
+        ReportSearchIndex rebuilt = index.beginRebuild();
+        rebuilt.index(1, "1", "見積書", "");
+        rebuilt.index(2, "1", "請求書", "");
+        index.update(1, "1", "見積書", "", "請求書", "");
+        index.update(2, "1", "見積書", "", "請求書", "");
+        index.completeRebuild(rebuilt);
+
+        assertTrue(index.search("見積", null).isEmpty());
+        assertEquals(index.search("請求書", null).size(), 2);
+    }
+}
@@ -0,0 +1,115 @@
+package com.techacademy.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    // ハッシュ化と照合が専用のスレッドプールで実行される
+    @Test
+    void testEncodeAndMatches() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 10, 10000)) {
+            String encoded = encoder.encode("12345678");
+
+            assertTrue(encoder.matches("12345678", encoded));
+            assertFalse(encoder.matches("87654321", encoded));
+            assertEquals(encoder.getRejectedCount(), 0);
+        }
+    }
+
+    // 保存済みのハッシュの強度が設定より低ければ再ハッシュの対象になる
+    @Test
+    void testUpgradeEncoding() {
+        String weak = new BCryptPasswordEncoder(4).encode("12345678");
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 10, 10000)) {
+            assertTrue(encoder.upgradeEncoding(weak));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("12345678")));
+        }
+    }
+
+    // 待ち行列が一杯なら照合はAuthenticationServiceExceptionで拒否する(ログイン画面で再度のログインを促す)
+    @Test
+    void testQueueFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release),
+                1, 1, 10000)) {
+            // 1件目が実行中、2件目が待ち行列で待っている状態にする
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("1", "1"));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("2", "2"));
+            while (encoder.getQueueSize() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertThrows(AuthenticationServiceException.class, () -> encoder.matches("3", "3"));
+            assertEquals(1, encoder.getRejectedCount());
+            // ハッシュ化は拒否せず呼び出し元のスレッドで実行し、ログイン時の再ハッシュは見送る
+            assertEquals("4", encoder.encode("4"));
+            assertFalse(encoder.upgradeEncoding("4"));
+
+            // 待っていた照合は拒否されずに実行される
+            release.countDown();
+            assertTrue(running.get(10, TimeUnit.SECONDS));
+            assertTrue(queued.get(10, TimeUnit.SECONDS));
+            assertTrue(encoder.upgradeEncoding("4"));
+        }
+    }
+
+    // 照合がタイムアウトした場合もAuthenticationServiceExceptionとする
+    @Test
+    void testTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BlockingPasswordEncoder(new CountDownLatch(1), release), 1, 1, 100)) {
+            assertThrows(AuthenticationServiceException.class, () -> encoder.matches("1", "1"));
+            assertEquals(1, encoder.getTimedOutCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // 照合の開始を通知し、解除されるまで待つPasswordEncoder(ハッシュ化はせず平文のまま比較する)
+    private static final class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+        // 常に再ハッシュの対象とする
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+// DBを使わず、検索結果(ResultSet)を差し替えてCSVの書き出し形式を確認する
+class ReportExportServiceTest {
+
+    // BOMと見出し行
+    private static final String HEADER = "\uFEFFID,日付,社員番号,氏名,タイトル,内容,登録日時,更新日時\r\n";
+
+    // 先頭にBOMと見出し行を書き出し、行はCRLFで区切る
+    @Test
+    void testHeaderAndRow() throws Exception {
+        String csv = export(new String[] { "2024-04-01", "1", "煌木 太郎", "タイトル", "内容", "2024-04-01 09:00:00",
+                "2024-04-01 09:00:00" });
+
+        assertEquals(HEADER + "1,2024-04-01,1,煌木 太郎,タイトル,内容,2024-04-01 09:00:00,2024-04-01 09:00:00\r\n",
+                csv);
+    }
+
+    // カンマ・ダブルクォート・改行を含む値はダブルクォートで囲み、ダブルクォートは2つ重ねる
+    @Test
+    void testQuoting() throws Exception {
+        String csv = export(new String[] { "2024-04-01", "1", "煌木 太郎", "A,B", "1行目\r\n2行目\n\"引用\"", null,
+                null });
+
+        assertEquals(HEADER + "1,2024-04-01,1,煌木 太郎,\"A,B\",\"1行目\r\n2行目\n\"\"引用\"\"\",,\r\n", csv);
+    }
+
+    // =、+、-、@で始まる値は数式として実行されないよう先頭に'を付ける
+    @Test
+    void testFormulaCells() throws Exception {
+        String csv = export(new String[] { "2024-04-01", "1", "@SUM(A1)", "=HYPERLINK(\"http://example.com\")",
+                "+1", "-1", "1-1" });
+
+        assertEquals(HEADER
+                + "1,2024-04-01,1,'@SUM(A1),\"'=HYPERLINK(\"\"http://example.com\"\")\",'+1,'-1,1-1\r\n", csv);
+    }
+
+    // ID=1の日報1件(IDより後の7列)を返すDBから書き出したCSV(ReportImportParserTestでも使用)
+    static String export(String[] columns) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt(1)).thenReturn(1);
+        for (int i = 0; i < columns.length; i++) {
+            when(resultSet.getString(i + 2)).thenReturn(columns[i]);
+        }
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        StringWriter writer = new StringWriter();
+        new ReportExportService(dataSource, 500).export(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 30), null,
+                writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ReportImportParserTest {
+
+    private final ReportImportParser parser = new ReportImportParser(new ObjectMapper());
+
+    // CSV出力の形式(BOM付き、ダブルクォート・改行を含む値)をそのまま読み込める
+    @Test
+    void testParseExportedCsv() throws Exception {
+        String csv = "\uFEFFID,日付,社員番号,氏名,タイトル,内容,登録日時,更新日時\r\n"
+                + "1,2024-04-01,1,煌木　太郎,\"訪問, 打ち合わせ\",\"1行目\r\n\"\"2行目\"\"\",,\r\n"
+                + "\r\n"
+                + "2,2024-04-02,1,煌木　太郎,研修,内容\r\n";
+        List<ReportImportRow> rows = parser.parseCsv(new StringReader(csv));
+
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0).reportDate(), "2024-04-01");
+        assertEquals(rows.get(0).title(), "訪問, 打ち合わせ");
+        assertEquals(rows.get(0).content(), "1行目\n\"2行目\"");
+        assertEquals(rows.get(1).line(), 4);
+    }
+
+    // CSV出力で先頭に'を付けた値(=、+、-、@で始まる値)は元の値に戻して読み込む
+    @Test
+    void testParseExportedFormulaCells() throws Exception {
+        String title = "-箇条書きのタイトル";
+        String content = "- 1行目\n+ 2行目\n=SUM(A1)\n@担当者";
+        String csv = ReportExportServiceTest.export(new String[] { "2024-04-01", "1", "煌木 太郎", title, content,
+                "2024-04-01 09:00:00", "2024-04-01 09:00:00" });
+        List<ReportImportRow> rows = parser.parseCsv(new StringReader(csv));
+
+        assertEquals(rows.size(), 1);
+        assertEquals(rows.get(0).reportDate(), "2024-04-01");
+        assertEquals(rows.get(0).title(), title);
+        assertEquals(rows.get(0).content(), content);
+
+        // 数式の文字が続かない'はそのまま
+        rows = parser.parseCsv(new StringReader("日付,タイトル,内容\n2024-04-01,'引用',=1\n"));
+        assertEquals(rows.get(0).title(), "'引用'");
+        assertEquals(rows.get(0).content(), "=1");
+    }
+
+    // 見出しに必要な項目がなければエラー
+    @Test
+    void testMissingColumn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parser.parseCsv(new StringReader("reportDate,title\n2024-04-01,研修\n")));
+    }
+
+    // JSONの配列を読み込める(項目がなければnull)
+    @Test
+    void testParseJson() throws Exception {
+        String json = "[{\"reportDate\":\"2024-04-01\",\"title\":\"研修\",\"content\":\"内容\"},{\"title\":\"日付なし\"}]";
+        List<ReportImportRow> rows = parser
+                .parseJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0).content(), "内容");
+        assertNull(rows.get(1).reportDate());
+        assertEquals(rows.get(1).line(), 2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+
+class UserDetailCacheTest {
+
+    private UserDetail userDetail(String code) {
+        Employee employee = new Employee();
+        employee.setCode(code);
+        employee.setName("テスト太郎");
+        employee.setPassword("");
+        employee.setRole(Role.GENERAL);
+        return new UserDetail(employee);
+    }
+
+    // 登録したユーザ情報が取得でき、削除後は取得できない
+    @Test
+    void testGetAndEvict() {
+        UserDetailCache cache = new UserDetailCache(10, Duration.ofMinutes(5));
+        UserDetail userDetail = userDetail("1");
+
+        assertNull(cache.get("1"));
+        cache.put("1", userDetail);
+        assertSame(cache.get("1"), userDetail);
+
+        cache.evict("1");
+        assertNull(cache.get("1"));
+
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 2);
+        assertEquals(cache.getEvictionCount(), 1);
+    }
+
+    // 上限件数を超えた場合は最も長く使われていないものが削除される
+    @Test
+    void testMaxSize() {
+        UserDetailCache cache = new UserDetailCache(2, Duration.ofMinutes(5));
+        cache.put("1", userDetail("1"));
+        cache.put("2", userDetail("2"));
+        cache.get("1");
+        cache.put("3", userDetail("3"));
+
+        assertEquals(cache.size(), 2);
+        assertNull(cache.get("2"));
+        assertEquals(cache.getEvictionCount(), 1);
+    }
+
+    // 有効期限切れのものは取得できない
+    @Test
+    void testExpired() {
+        UserDetailCache cache = new UserDetailCache(10, Duration.ZERO);
+        cache.put("1", userDetail("1"));
+
+        assertNull(cache.get("1"));
+        assertEquals(cache.size(), 0);
+    }
+
+}
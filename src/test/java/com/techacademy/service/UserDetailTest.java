@@ -0,0 +1,61 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+
+class UserDetailTest {
+
+    private static final String HASH = "$2a$10$vY93/U2cXCfEMBESYnDJUevcjJ208sXav23S.K8elE/J6Sxr4w5jO";
+
+    private UserDetail userDetail() {
+        Employee employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+        employee.setPassword(HASH);
+        employee.setRole(Role.ADMIN);
+        return new UserDetail(employee);
+    }
+
+    // セッションに保存される形式には社員番号・氏名・権限のみが含まれ、パスワードのハッシュは含まれない
+    @Test
+    void testSerialization() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(userDetail());
+        }
+        assertFalse(new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1).contains(HASH));
+
+        UserDetail restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (UserDetail) in.readObject();
+        }
+        assertEquals(restored.getCode(), "1");
+        assertEquals(restored.getName(), "煌木　太郎");
+        assertEquals(restored.getRole(), Role.ADMIN);
+        assertEquals(restored.getAuthorities().iterator().next().getAuthority(), "ADMIN");
+        assertNull(restored.getPassword());
+    }
+
+    // 認証後にパスワードを消去しても、複製元(キャッシュ内のユーザ情報)は消去されない
+    @Test
+    void testEraseCredentials() {
+        UserDetail cached = userDetail();
+        UserDetail copy = cached.copy();
+        copy.eraseCredentials();
+
+        assertNull(copy.getPassword());
+        assertEquals(cached.getPassword(), HASH);
+    }
+}
@@ -0,0 +1,48 @@
+package com.techacademy.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    // 上限を超えたリクエストは待ち時間を過ぎると503を返す
+    @Test
+    void testReject() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(new MockHttpServletRequest(), rejected, (nestedRequest, nestedResponse) -> {
+            });
+            assertEquals(filter.getInFlight(), 1);
+        });
+
+        assertEquals(rejected.getStatus(), 503);
+        assertEquals(filter.getRejectedCount(), 1);
+        assertEquals(filter.getInFlight(), 0);
+    }
+
+    // 非同期処理を開始したリクエストは、最初の処理が戻っても完了するまで数える
+    @Test
+    void testAsync() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest();
+        asyncRequest.setAsyncSupported(true);
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(),
+                (request, response) -> request.startAsync(request, response));
+
+        assertEquals(filter.getInFlight(), 1);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, (request, response) -> {
+        });
+        assertEquals(rejected.getStatus(), 503);
+
+        ((MockAsyncContext) asyncRequest.getAsyncContext()).complete();
+        assertEquals(filter.getInFlight(), 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.techacademy.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.service.UserDetail;
+
+class FragmentRenderCacheTest {
+
+    private FragmentRenderCache cache;
+
+    @BeforeEach
+    void beforeEach() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        cache = new FragmentRenderCache(engine, true, 100);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reports");
+        request.setContextPath("/app");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    // 権限・氏名が同じであれば、2回目以降は生成済みの内容を返す
+    @Test
+    void testRenderForUser() {
+        login("1", "煌木　太郎", Role.ADMIN);
+        String html = cache.renderForUser("common/side-menu :: menu");
+        assertTrue(html.contains("href=\"/app/employees\""));
+        assertTrue(html.contains("煌木　太郎"));
+        assertSame(cache.renderForUser("common/side-menu :: menu"), html);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+
+        // 一般ユーザーは従業員のリンクを含まない別の内容になる
+        login("2", "田中　太郎", Role.GENERAL);
+        String general = cache.renderForUser("common/side-menu :: menu");
+        assertFalse(general.contains("/app/employees"));
+        assertTrue(general.contains("href=\"/app/reports\""));
+        assertEquals(cache.size(), 2);
+
+        cache.clear();
+        assertEquals(cache.size(), 0);
+    }
+
+    // 宣言した入力(タイトル)ごとに生成する
+    @Test
+    void testRenderParameters() {
+        String list = cache.render("common/header-content :: head", "title", "日報一覧");
+        String detail = cache.render("common/header-content :: head", "title", "日報詳細");
+        assertTrue(list.contains("<title>日報一覧</title>"));
+        assertTrue(detail.contains("<title>日報詳細</title>"));
+        assertTrue(list.contains("href=\"/app/css/bootstrap.min.css\""));
+        assertEquals(cache.size(), 2);
+    }
+
+    // 上限件数を超えた場合は最も長く使われていないものを削除し、新しい入力の組み合わせも登録する
+    @Test
+    void testEviction() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        FragmentRenderCache small = new FragmentRenderCache(engine, true, 2);
+
+        small.render("common/header-content :: head", "title", "日報一覧");
+        small.render("common/header-content :: head", "title", "日報詳細");
+        // 日報一覧を使うと、日報詳細が最も長く使われていないものになる
+        small.render("common/header-content :: head", "title", "日報一覧");
+        small.render("common/header-content :: head", "title", "日報更新");
+        assertEquals(small.size(), 2);
+        assertEquals(small.getEvictionCount(), 1);
+        assertEquals(small.getHitCount(), 1);
+
+        // 残っているものはキャッシュから、削除したものは再度生成する
+        small.render("common/header-content :: head", "title", "日報更新");
+        small.render("common/header-content :: head", "title", "日報一覧");
+        assertEquals(small.getHitCount(), 3);
+        small.render("common/header-content :: head", "title", "日報詳細");
+        assertEquals(small.getMissCount(), 4);
+        assertEquals(small.getEvictionCount(), 2);
+    }
+
+    private void login(String code, String name, Role role) {
+        Employee employee = new Employee();
+        employee.setCode(code);
+        employee.setName(name);
+        employee.setRole(role);
+        employee.setPassword("");
+        employee.setCreatedAt(LocalDateTime.now());
+        employee.setUpdatedAt(LocalDateTime.now());
+        UserDetail userDetail = new UserDetail(employee);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(userDetail, null, userDetail.getAuthorities()));
+    }
+}